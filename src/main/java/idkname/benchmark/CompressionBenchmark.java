@@ -0,0 +1,77 @@
+package idkname.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import idkname.utility.BinaryBackend;
+import idkname.utility.CompressedBackend;
+import idkname.utility.Durability;
+import idkname.utility.FileBackend;
+import idkname.utility.Storage;
+import idkname.utility.TaskList;
+import idkname.utility.TextBackend;
+
+/**
+ * Measures the trade-off between compression ratio and save/load time for snapshot files.
+ * <p>
+ * Every sample file is loaded once and then saved and reloaded with each format and DEFLATE level.
+ * The ratio is relative to the uncompressed text snapshot; times are the best of the measured rounds.
+ * <p>
+ * Usage: {@code gradlew benchmark -Pbench=CompressionBenchmark --args="[file...]"}.
+ * Without files, a synthetic snapshot of {@value #DEFAULT_TASKS} tasks is generated.
+ */
+public class CompressionBenchmark {
+    private static final int DEFAULT_TASKS = 200_000;
+    private static final int ROUNDS = 3;
+    private static final int[] LEVELS = {FileBackend.UNCOMPRESSED, 1, CompressedBackend.DEFAULT_LEVEL, 9};
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the sample snapshot files to measure
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Path[] samples = new Path[Math.max(1, args.length)];
+        for (int i = 0; i < args.length; i++) {
+            samples[i] = Path.of(args[i]);
+        }
+        if (args.length == 0) {
+            samples[0] = LoadBenchmark.generate(DEFAULT_TASKS);
+        }
+        Path dir = Files.createTempDirectory("idkname-bench");
+        for (Path sample : samples) {
+            TaskList tasks = new TaskList();
+            new Storage(tasks, new TextBackend(sample.toString())).load();
+            System.out.println("sample: " + sample + " (" + tasks.getTasks().size() + " tasks)");
+            long baseline = 0;
+            for (boolean isBinary : new boolean[] {false, true}) {
+                for (int level : LEVELS) {
+                    Path file = dir.resolve((isBinary ? "binary-" : "text-") + level);
+                    FileBackend backend = level == FileBackend.UNCOMPRESSED
+                            ? (isBinary ? new BinaryBackend(file.toString()) : new TextBackend(file.toString()))
+                            : new CompressedBackend(file.toString(), isBinary, level);
+                    double save = Double.MAX_VALUE;
+                    double load = Double.MAX_VALUE;
+                    for (int round = 0; round <= ROUNDS; round++) {
+                        long start = System.nanoTime();
+                        new Storage(tasks, backend, Durability.NONE).save();
+                        long saved = System.nanoTime();
+                        new Storage(new TaskList(), backend).load();
+                        long loaded = System.nanoTime();
+                        if (round > 0) { // the first round warms up the JIT
+                            save = Math.min(save, (saved - start) / 1e6);
+                            load = Math.min(load, (loaded - saved) / 1e6);
+                        }
+                    }
+                    long size = backend.getSize();
+                    baseline = baseline == 0 ? size : baseline;
+                    System.out.printf("%-6s level %2s: %10d bytes, ratio %5.2f, save %7.1f ms, load %7.1f ms%n",
+                            isBinary ? "binary" : "text", level == FileBackend.UNCOMPRESSED ? "-" : level,
+                            size, (double) baseline / size, save, load);
+                }
+            }
+        }
+    }
+}
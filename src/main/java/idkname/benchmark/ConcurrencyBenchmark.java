@@ -0,0 +1,94 @@
+package idkname.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import idkname.task.Task;
+import idkname.task.Todo;
+import idkname.utility.TaskList;
+
+/**
+ * Measures a mixed workload on one {@link TaskList}: a single writer adds, marks and deletes tasks
+ * while several readers scan the whole list, first holding the list's lock for every scan as callers
+ * had to before versions were published, then reading the published {@link idkname.utility.TaskListView}.
+ * <p>
+ * Usage: {@code gradlew benchmark -Pbench=ConcurrencyBenchmark --args="[tasks] [readers] [seconds]"}.
+ */
+public class ConcurrencyBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional task count, reader thread count and seconds per mode
+     * @throws Exception if a thread is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        run(taskCount, readers, 1, false, true); // warm-up
+        run(taskCount, readers, seconds, true, false);
+        run(taskCount, readers, seconds, false, false);
+    }
+
+    private static void run(int taskCount, int readers, int seconds, boolean isLocked, boolean isQuiet)
+            throws InterruptedException {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        LongAdder scans = new LongAdder();
+        LongAdder writes = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> {
+            for (int i = 0; isRunning.get(); i++) {
+                tasks.add(new Todo("new " + i));
+                tasks.mark(i % tasks.size(), i % 2 == 0);
+                tasks.remove(0);
+                writes.add(3);
+            }
+        }));
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                long done = 0;
+                while (isRunning.get()) {
+                    if (isLocked) {
+                        synchronized (tasks) {
+                            done += countDone(tasks.getTasks());
+                        }
+                    } else {
+                        done += countDone(tasks.view());
+                    }
+                    scans.increment();
+                }
+                if (done < 0) {
+                    System.out.println(done); // keeps the scans from being optimised away
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        Thread.sleep(seconds * 1000L);
+        isRunning.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!isQuiet) {
+            System.out.printf("%-6s %,10.0f scans/s %,12.0f writes/s%n", isLocked ? "locked" : "view",
+                    scans.sum() / (double) seconds, writes.sum() / (double) seconds);
+        }
+    }
+
+    private static long countDone(Iterable<Task> tasks) {
+        long done = 0;
+        for (Task t : tasks) {
+            if (t.isDone()) {
+                done++;
+            }
+        }
+        return done;
+    }
+}
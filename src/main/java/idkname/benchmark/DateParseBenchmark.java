@@ -0,0 +1,78 @@
+package idkname.benchmark;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+import idkname.task.Event;
+import idkname.utility.ParseResult;
+import idkname.utility.Parser;
+
+/**
+ * Compares parsing event input before and after the result-returning date API, on valid input and
+ * on input with a bad date. The previous path parsed both datetimes with {@link LocalDateTime#parse}
+ * to validate them, parsed them again to build the event, and reported bad input by exception.
+ * <p>
+ * Usage: {@code gradlew benchmark -Pbench=DateParseBenchmark --args="[inputs] [rounds]"}.
+ */
+public class DateParseBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of inputs and number of measured rounds
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        String[] valid = new String[count];
+        String[] invalid = new String[count];
+        for (int i = 0; i < count; i++) {
+            int day = i % 28 + 1;
+            valid[i] = String.format("meeting %d / 2025-10-%02dT10:00 / 2025-10-%02dT11:30:00", i, day, day);
+            invalid[i] = String.format("meeting %d / 2025-10-%02dT10:00 / 2025-13-%02dT11:30", i, day, day);
+        }
+
+        for (int round = 0; round <= rounds; round++) {
+            String label = round == 0 ? "warmup" : "round " + round;
+            for (String[] inputs : new String[][] {valid, invalid}) {
+                long start = System.nanoTime();
+                int added = 0;
+                for (String input : inputs) {
+                    added += exceptionPath(input) ? 1 : 0;
+                }
+                double exceptionSeconds = (System.nanoTime() - start) / 1e9;
+
+                start = System.nanoTime();
+                for (String input : inputs) {
+                    ParseResult<Event> parsed = Parser.eventResult(input);
+                    added -= parsed.isOk() ? 1 : 0;
+                }
+                double resultSeconds = (System.nanoTime() - start) / 1e9;
+                if (added != 0) {
+                    throw new IllegalStateException("The two paths accepted different inputs");
+                }
+                System.out.printf("%s %-7s exceptions: %,11.0f events/s, results: %,11.0f events/s%n", label,
+                        inputs == valid ? "valid" : "invalid", count / exceptionSeconds, count / resultSeconds);
+            }
+        }
+    }
+
+    /**
+     * Parses an event the way the previous {@code eventParse} and {@code TaskList.add} did.
+     */
+    private static boolean exceptionPath(String input) {
+        try {
+            int first = input.indexOf('/');
+            int second = input.indexOf('/', first + 1);
+            String start = input.substring(first + 1, second).trim();
+            String end = input.substring(second + 1).trim();
+            LocalDateTime.parse(start); // validation only
+            LocalDateTime.parse(end);
+            return new Event(input.substring(0, first).trim(), LocalDateTime.parse(start),
+                    LocalDateTime.parse(end)) != null;
+        } catch (DateTimeException e) {
+            return false;
+        }
+    }
+}
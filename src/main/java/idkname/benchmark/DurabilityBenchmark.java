@@ -0,0 +1,65 @@
+package idkname.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import idkname.task.Todo;
+import idkname.utility.Durability;
+import idkname.utility.Storage;
+import idkname.utility.TaskList;
+import idkname.utility.TextBackend;
+
+/**
+ * Measures snapshot commit cost under each {@link Durability} mode, with several threads
+ * requesting saves at once so that group commits can be observed.
+ * <p>
+ * Usage: {@code gradlew benchmark -Pbench=DurabilityBenchmark --args="[tasks] [threads] [savesPerThread]"}.
+ */
+public class DurabilityBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional task count, thread count and saves per thread
+     * @throws Exception if a save fails or a thread is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int savesPerThread = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        Path dir = Files.createTempDirectory("idkname-bench");
+        for (Durability durability : Durability.values()) {
+            Storage storage = new Storage(tasks, new TextBackend(dir.resolve(durability + ".txt").toString()),
+                    durability);
+            long start = System.nanoTime();
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread worker = new Thread(() -> {
+                    for (int i = 0; i < savesPerThread; i++) {
+                        try {
+                            storage.save();
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            storage.save(true);
+            System.out.printf("%-9s %.1f ms total; %s%n", durability,
+                    (System.nanoTime() - start) / 1e6, storage.getMetrics());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package idkname.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import idkname.utility.Durability;
+import idkname.utility.LoadStats;
+import idkname.utility.MappedBackend;
+import idkname.utility.Storage;
+import idkname.utility.StorageBackend;
+import idkname.utility.TaskList;
+
+/**
+ * Compares the storage backends on the same set of tasks: the time to save a snapshot,
+ * the time to load it back, and the size of the stored snapshot.
+ * <p>
+ * Usage: {@code gradlew benchmark -Pbench=LoadBenchmark --args="[file] [rounds]"}.
+ * Without a file, a synthetic snapshot of {@value #DEFAULT_TASKS} tasks is generated.
+ */
+public class LoadBenchmark {
+    private static final int DEFAULT_TASKS = 200_000;
+    private static final int DEFAULT_ROUNDS = 5;
+    private static final String[] BACKENDS = {"text", "mmap", "binary", "memory"};
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional snapshot file path and number of measured rounds
+     * @throws IOException if the file cannot be read or generated
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = args.length > 0 ? Path.of(args[0]) : generate(DEFAULT_TASKS);
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+        System.out.println("file: " + file + " (" + Files.size(file) + " bytes)");
+
+        TaskList tasks = new TaskList();
+        new Storage(tasks, new MappedBackend(file.toString())).load();
+        Path dir = Files.createTempDirectory("idkname-bench");
+        StorageBackend[] backends = new StorageBackend[BACKENDS.length];
+        for (int i = 0; i < BACKENDS.length; i++) {
+            backends[i] = StorageBackend.of(BACKENDS[i], dir.resolve(BACKENDS[i]).toString());
+        }
+
+        for (int i = 0; i < rounds + 1; i++) {
+            String label = i == 0 ? "warmup" : "round " + i;
+            for (int b = 0; b < backends.length; b++) {
+                double saveMillis = save(tasks, backends[b]);
+                LoadStats stats = new Storage(new TaskList(), backends[b]).load();
+                System.out.printf("%s %-6s save: %6.1f ms, load: %s%n", label, BACKENDS[b], saveMillis, stats);
+            }
+        }
+        for (int b = 0; b < backends.length; b++) {
+            System.out.printf("size %-6s %d bytes%n", BACKENDS[b], backends[b].getSize());
+        }
+    }
+
+    private static double save(TaskList tasks, StorageBackend backend) throws IOException {
+        long start = System.nanoTime();
+        new Storage(tasks, backend, Durability.NONE).save();
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    /**
+     * Writes a snapshot with an even mix of todos, deadlines and events to a temporary file.
+     *
+     * @param count number of tasks to write
+     * @return the path of the generated file
+     * @throws IOException if the file cannot be written
+     */
+    static Path generate(int count) throws IOException {
+        Path dir = Files.createTempDirectory("idkname-bench");
+        Path file = dir.resolve("IDKName.txt");
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        LocalDateTime time = day.atTime(9, 0);
+        try (BufferedWriter w = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < count; i++) {
+                int done = i % 3 == 0 ? 1 : 0;
+                switch (i % 3) {
+                case 0:
+                    w.write(String.format("T | %d | read chapter %d", done, i));
+                    break;
+                case 1:
+                    w.write(String.format("D | %d | submit report %d | %s", done, i, day.plusDays(i % 1000)));
+                    break;
+                default:
+                    w.write(String.format("E | %d | meeting %d | %s | %s", done, i,
+                            time.plusHours(i % 5000), time.plusHours(i % 5000 + 1)));
+                    break;
+                }
+                w.newLine();
+            }
+        }
+        return file;
+    }
+}
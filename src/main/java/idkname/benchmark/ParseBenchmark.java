@@ -0,0 +1,134 @@
+package idkname.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import idkname.task.Deadline;
+import idkname.task.Event;
+import idkname.task.Task;
+import idkname.utility.CommandLine;
+import idkname.utility.DispatchTable;
+import idkname.utility.Parser;
+
+/**
+ * Compares the throughput of routing input lines to their command and parsing the tasks they add,
+ * before and after the single-pass tokenizer: the previous path split each line with regular
+ * expressions, lower-cased the command and picked it with a string switch.
+ * <p>
+ * Usage: {@code gradlew benchmark -Pbench=ParseBenchmark --args="[lines] [rounds]"}.
+ */
+public class ParseBenchmark {
+    private static final String[] SAMPLES = {
+        "todo read book %d",
+        "deadline return book %d / 2025-10-01",
+        "event meeting %d / 2025-10-01T10:00 / 2025-10-01T11:00",
+        "mark %d",
+        "list",
+        "find book %d",
+        "Delete 1-%d",
+        "sort deadline",
+    };
+    private static final String[] WORDS = {"bye", "list", "help", "mark", "unmark", "delete", "todo", "deadline",
+        "event", "find", "sort", "on", "between", "free", "due", "overdue", "stats", "next"};
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of input lines and number of measured rounds
+     */
+    public static void main(String[] args) {
+        int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        String[] lines = new String[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            lines[i] = String.format(SAMPLES[i % SAMPLES.length], i + 1);
+        }
+        DispatchTable<Integer> table = new DispatchTable<>(WORDS.length);
+        for (int i = 0; i < WORDS.length; i++) {
+            table.put(WORDS[i], i);
+        }
+
+        for (int round = 0; round <= rounds; round++) {
+            String label = round == 0 ? "warmup" : "round " + round;
+            long start = System.nanoTime();
+            long checksum = 0;
+            for (String line : lines) {
+                checksum += regexPath(line);
+            }
+            double regexSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            CommandLine tokenizer = new CommandLine();
+            for (String line : lines) {
+                checksum -= tokenizerPath(line, tokenizer, table);
+            }
+            double tokenizerSeconds = (System.nanoTime() - start) / 1e9;
+            if (checksum != 0) {
+                throw new IllegalStateException("The two paths routed some line differently");
+            }
+            System.out.printf("%s regex: %,12.0f commands/s, tokenizer: %,12.0f commands/s%n", label,
+                    lineCount / regexSeconds, lineCount / tokenizerSeconds);
+        }
+    }
+
+    /**
+     * Routes a line the way {@code Command} did before the tokenizer, with its regular-expression splits.
+     */
+    private static int regexPath(String line) {
+        String trimmed = line.trim();
+        String[] parts = trimmed.isEmpty() ? new String[] { "" } : trimmed.split("\\s+", 2);
+        String command = parts[0].toLowerCase();
+        String arg = parts.length > 1 ? parts[1] : null;
+        int route = switch (command) {
+        case "bye" -> 0;
+        case "list" -> 1;
+        case "help" -> 2;
+        case "mark" -> 3;
+        case "unmark" -> 4;
+        case "delete" -> 5;
+        case "todo" -> 6;
+        case "deadline" -> 7;
+        case "event" -> 8;
+        case "find" -> 9;
+        case "sort" -> 10;
+        case "on" -> 11;
+        case "between" -> 12;
+        case "free" -> 13;
+        case "due" -> 14;
+        case "overdue" -> 15;
+        case "stats" -> 16;
+        case "next" -> 17;
+        default -> -1;
+        };
+        Task t = null;
+        if (route == 7) {
+            String[] fields = arg.trim().split("\\s*/\\s*", 2);
+            t = new Deadline(fields[0].trim(), LocalDate.parse(fields[1].trim()));
+        } else if (route == 8) {
+            String[] left = arg.trim().split("\\s*/\\s*", 2);
+            String[] right = left[1].split("\\s*/\\s*", 2);
+            LocalDateTime.parse(right[0].trim()); // validated first, then parsed again
+            LocalDateTime.parse(right[1].trim());
+            t = new Event(left[0].trim(), LocalDateTime.parse(right[0].trim()), LocalDateTime.parse(right[1].trim()));
+        }
+        return route + (arg == null ? 0 : arg.length()) + (t == null ? 0 : t.getDescription().length());
+    }
+
+    /**
+     * Routes a line through the tokenizer and dispatch table, as {@code Command} now does.
+     */
+    private static int tokenizerPath(String line, CommandLine tokenizer, DispatchTable<Integer> table) {
+        tokenizer.reset(line);
+        Integer found = table.get(line, tokenizer.commandStart(), tokenizer.commandEnd());
+        int route = found == null ? -1 : found;
+        String arg = tokenizer.argument();
+        Task t = null;
+        if (route == 7) {
+            t = Parser.deadlineTaskParse(arg);
+        } else if (route == 8) {
+            t = Parser.eventTaskParse(arg);
+        }
+        return route + (arg == null ? 0 : arg.length()) + (t == null ? 0 : t.getDescription().length());
+    }
+}
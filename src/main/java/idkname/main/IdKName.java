@@ -1,11 +1,27 @@
 package idkname.main;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
 
+import idkname.utility.AutoSaver;
 import idkname.utility.Command;
+import idkname.utility.CommandLine;
+import idkname.utility.Durability;
+import idkname.utility.LoadProgress;
+import idkname.utility.NaturalDates;
+import idkname.utility.SaveMetrics;
 import idkname.utility.Storage;
+import idkname.utility.StorageBackend;
 import idkname.utility.TaskList;
 
 /**
@@ -14,36 +30,167 @@ import idkname.utility.TaskList;
  * This class coordinates between the user interface ({@link Command}),
  * the task list ({@link TaskList}), and the storage system ({@link Storage}).
  * It handles initialization, running the user interaction loop,
- * and saving/loading tasks from persistent storage.
+ * and saving/loading tasks from persistent storage. Changes are saved in the
+ * background by an {@link AutoSaver} and flushed on exit.
  */
 public class IdKName {
+    /**
+     * System property selecting the {@link StorageBackend}: {@code text}, {@code binary}, {@code mmap} (default)
+     * or {@code memory}.
+     */
+    public static final String BACKEND_PROPERTY = "idkname.storage.backend";
+    /** System property selecting the {@link Durability}: {@code none}, {@code on-exit} or {@code per-batch}. */
+    public static final String DURABILITY_PROPERTY = "idkname.storage.durability";
+    /** The storage file used when none is given. */
+    public static final String DEFAULT_FILE_PATH = "./data/IDKName.txt";
+    private static final String USAGE = "Usage: IdKName [--script <file>|-] [--data <file>]";
+    private static final long AUTOSAVE_QUIET_MILLIS = 2_000;
+    private static final long AUTOSAVE_MAX_DELAY_MILLIS = 30_000;
+
     private final TaskList list;
     private final Storage storage;
     private final Command command;
+    private final AutoSaver autoSaver;
+    private final boolean isAutoSaving;
+    private final CompletableFuture<Void> readiness = new CompletableFuture<>();
+    private volatile LoadProgress progress = new LoadProgress(0);
 
     /**
      * Constructs a new instance of the IDKName application.
-     * Initializes the task list, UI, and storage, and attempts
-     * to load tasks from the given file path.
+     * Initializes the task list, UI, and storage, and starts loading
+     * tasks from the given file path in the background.
+     * The storage backend and durability are taken from the {@value #BACKEND_PROPERTY}
+     * and {@value #DURABILITY_PROPERTY} system properties.
      *
      * @param filePath the path to the storage file for saving and loading tasks
      */
     public IdKName(String filePath) {
-        assert filePath != null : "filePath must not be null";
+        this(StorageBackend.of(System.getProperty(BACKEND_PROPERTY, "mmap"), filePath),
+                Durability.parse(System.getProperty(DURABILITY_PROPERTY, "per-batch")));
+    }
+
+    /**
+     * Constructs a new instance of the IDKName application that keeps its tasks in the given backend.
+     * File backends load snapshots in either format; text files are migrated by the binary backend.
+     * <p>
+     * Loading runs on a background thread and streams tasks into the list in batches, so the
+     * constructor returns immediately. See {@link #getReadiness()}. The natural-language date parser
+     * is warmed up on another background thread.
+     *
+     * @param backend    where tasks are saved and loaded
+     * @param durability which snapshot saves are forced to disk
+     */
+    public IdKName(StorageBackend backend, Durability durability) {
+        this(backend, durability, true);
+    }
+
+    /**
+     * Constructs a new instance of the IDKName application that keeps its tasks in the given backend,
+     * optionally without saving snapshots in the background. Without autosaving, changes are still
+     * appended to the journal as they happen, and {@link #persist()} writes the one snapshot.
+     *
+     * @param backend      where tasks are saved and loaded
+     * @param durability   which snapshot saves are forced to disk
+     * @param isAutoSaving whether to save snapshots in the background while the list changes
+     */
+    public IdKName(StorageBackend backend, Durability durability, boolean isAutoSaving) {
+        assert backend != null : "backend must not be null";
 
+        this.isAutoSaving = isAutoSaving;
         this.list = new TaskList();
         this.command = new Command("IDKName", this.list);
-        this.storage = new Storage(this.list, filePath);
+        this.storage = new Storage(this.list, backend, durability);
+        this.autoSaver = new AutoSaver(this.storage, AUTOSAVE_QUIET_MILLIS, AUTOSAVE_MAX_DELAY_MILLIS);
+
+        NaturalDates.warmUp();
+        Thread loader = new Thread(this::load, "idkname-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
 
+    /**
+     * Loads the storage file, then starts autosaving and completes the readiness future.
+     * <p>
+     * If the file exists but cannot be loaded, it is moved aside with its journal before anything
+     * can be saved, so the tasks loaded so far never replace it. If it cannot be moved either,
+     * nothing is saved this session.
+     */
+    private void load() {
+        boolean canSave = false;
         try {
+            this.progress = new LoadProgress(this.storage.estimateTaskCount());
+            this.list.addListener(this.progress);
             this.storage.load();
+            canSave = true;
         } catch (FileNotFoundException e) {
-            command.showFileLoadingError();
+            System.err.println(command.showFileLoadingError());
+            canSave = true;
         } catch (DateTimeParseException e) {
-            command.showDateTimeError();
+            System.err.println(command.showDateTimeError());
+        } catch (IOException e) {
+            System.err.println("load error: " + e.getMessage());
+        } finally {
+            this.list.removeListener(this.progress);
+            if (!canSave) {
+                canSave = setAside();
+            }
+            if (canSave) {
+                this.list.addListener(this.autoSaver); // without its thread, it only records unsaved changes
+                if (this.isAutoSaving) {
+                    this.autoSaver.start();
+                }
+            }
+            this.readiness.complete(null);
+        }
+    }
+
+    /**
+     * Moves the storage file that could not be loaded aside.
+     *
+     * @return true if the tasks can now be saved without replacing it
+     */
+    private boolean setAside() {
+        try {
+            String aside = this.storage.setAside();
+            if (aside != null) {
+                System.err.println("unreadable tasks kept at: " + aside);
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("set aside error: " + e.getMessage() + "; changes will not be saved");
+            return false;
         }
     }
 
+    /**
+     * Returns a future completed once every task has been loaded and replayed.
+     * Commands that change the list must not run before it completes.
+     *
+     * @return the readiness future
+     */
+    public CompletableFuture<Void> getReadiness() {
+        return this.readiness;
+    }
+
+    /**
+     * Returns whether loading has finished.
+     *
+     * @return true once {@link #getReadiness()} has completed
+     */
+    public boolean isReady() {
+        return this.readiness.isDone();
+    }
+
+    /**
+     * Returns whether the input can run against a partly loaded list.
+     *
+     * @param input the raw user input string
+     * @return true if the command only reads the list
+     */
+    public boolean isReadOnly(String input) {
+        return command.isReadOnly(input);
+    }
+
     /**
      * Returns the initial greeting message shown to the user when the application starts.
      *
@@ -65,22 +212,126 @@ public class IdKName {
     }
 
     /**
-     * Persists the current state of the application before exit.
+     * Persists the current state of the application before exit by flushing the autosaver.
+     * Nothing is written if every change has already been saved. Waits for loading to finish
+     * first, so a partly loaded list is never saved over the file.
      *
      * @throws IOException if an error occurs while saving data to storage
      */
     public void persistOnExit() throws IOException {
         System.out.println("save works");
-        storage.save();
+        persist();
+    }
+
+    /**
+     * Waits for loading to finish, then saves any changes not saved yet and stops autosaving.
+     *
+     * @return the timings of every save so far
+     * @throws IOException if an error occurs while saving data to storage
+     */
+    public SaveMetrics persist() throws IOException {
+        readiness.join();
+        autoSaver.flush();
+        return storage.getMetrics();
     }
 
     /**
      * Generates a response for the given user input.
+     * <p>
+     * While tasks are still loading, read-only commands run against the tasks loaded so far
+     * and their response ends with a "loading N/M" line; other commands wait until loading is done.
      *
      * @param input the raw user input string
      * @return the application's response to the input
      */
     public String getResponse(String input) {
-        return command.getResponse(input);
+        if (isReady()) {
+            return command.getResponse(input);
+        }
+        if (!command.isReadOnly(input)) {
+            readiness.join();
+            return command.getResponse(input);
+        }
+        String response = command.getResponse(input);
+        return isReady() ? response : String.format("%s%n(%s)", response.stripTrailing(), progress);
+    }
+
+    /**
+     * Runs commands read one per line, writing each response to {@code out}, until the input ends or
+     * a {@code bye} command. Blank lines and lines starting with {@code #} are skipped. Waits for
+     * loading to finish first, so every command sees the whole list.
+     *
+     * @param in  the commands
+     * @param out receives the responses, each ending with a line break
+     * @return the number of commands run
+     * @throws IOException if reading a command or writing a response fails
+     */
+    public long runScript(BufferedReader in, Appendable out) throws IOException {
+        readiness.join();
+        CommandLine line = new CommandLine();
+        long count = 0;
+        for (String input = in.readLine(); input != null; input = in.readLine()) {
+            line.reset(input);
+            if (line.commandEnd() == line.commandStart() || input.charAt(line.commandStart()) == '#') {
+                continue;
+            }
+            String response = getResponse(input);
+            out.append(response);
+            if (!response.endsWith("\n")) {
+                out.append(System.lineSeparator());
+            }
+            count++;
+            if (line.isCommand("bye")) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Runs IDKName without the GUI, reading commands from a script file, or from standard input if no
+     * file or {@code -} is given.
+     * <p>
+     * Responses are written to standard output through one buffer, and nothing is saved until the
+     * script ends; changes are journaled as they happen. A summary with the throughput in commands
+     * per second is written to standard error, so the output can be compared or piped on.
+     * Usage: {@code IdKName [--script <file>|-] [--data <file>]}. The storage backend and durability are
+     * taken from the same system properties as in the GUI.
+     *
+     * @param args the command-line options
+     * @throws IOException if the script cannot be read or the tasks cannot be saved
+     */
+    public static void main(String[] args) throws IOException {
+        String script = "-";
+        String dataFile = DEFAULT_FILE_PATH;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--script") && i + 1 < args.length) {
+                script = args[++i];
+            } else if (args[i].equals("--data") && i + 1 < args.length) {
+                dataFile = args[++i];
+            } else {
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+        }
+
+        IdKName app = new IdKName(StorageBackend.of(System.getProperty(BACKEND_PROPERTY, "mmap"), dataFile),
+                Durability.parse(System.getProperty(DURABILITY_PROPERTY, "per-batch")), false);
+        long commands;
+        long nanos;
+        SaveMetrics metrics;
+        try (BufferedReader in = script.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(script), StandardCharsets.UTF_8);
+             Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+            app.getReadiness().join();
+            long start = System.nanoTime();
+            commands = app.runScript(in, out);
+            nanos = System.nanoTime() - start;
+            out.flush();
+            metrics = app.persist();
+        }
+        System.err.printf("%d commands in %.1f ms (%.0f commands/s); save metrics: %s%n",
+                commands, nanos / 1e6, commands / Math.max(nanos / 1e9, 1e-9), metrics);
     }
 }
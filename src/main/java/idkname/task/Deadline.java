@@ -41,6 +41,13 @@ public class Deadline extends Task {
         return "D";
     }
 
+    @Override
+    public Task copy() {
+        Deadline t = new Deadline(this.description, this.date);
+        t.isDone = this.isDone;
+        return t;
+    }
+
     /**
      * Returns string representation of Deadline Task.
      * Eg output. [D][] homework (by: Oct 3 2018)
@@ -43,6 +43,13 @@ public class Event extends Task {
         return "E";
     }
 
+    @Override
+    public Task copy() {
+        Event t = new Event(this.description, this.start, this.end);
+        t.isDone = this.isDone;
+        return t;
+    }
+
     /**
      * Returns string representation of Event Task.
      * Eg output. [D][] homework (from: Oct 3 2018 1200 to: Oct 3 2018 1400)
@@ -35,6 +35,14 @@ public abstract class Task implements Comparable<Task> {
      */
     public abstract String getTaskType();
 
+    /**
+     * Returns an independent copy of this task, including its completion status.
+     * Used to take snapshots that later mutations of this task do not affect.
+     *
+     * @return a new task equal to this one
+     */
+    public abstract Task copy();
+
     /**
      * Returns the due date of this task if it is a Deadline.
      * Default implementation returns null.
@@ -106,6 +114,7 @@ public abstract class Task implements Comparable<Task> {
      */
     public String markUndone() {
         if (this.isDone) {
+            this.isDone = false;
             return String.format("OK, I've marked this task as not done yet: %n%s", this);
         }
         return String.format("Task already marked as not done: %n%s", this);
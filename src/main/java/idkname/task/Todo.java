@@ -13,6 +13,13 @@ public class Todo extends Task {
         super(message);
     }
 
+    @Override
+    public Task copy() {
+        Todo t = new Todo(this.description);
+        t.isDone = this.isDone;
+        return t;
+    }
+
     /**
      * Returns string representation of Todo Task.
      * Eg output. [T][] homework
@@ -1,8 +1,10 @@
 package idkname.ui;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import idkname.main.IdKName;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.ScrollPane;
@@ -27,6 +29,7 @@ public class MainWindow extends AnchorPane {
     private Button sendButton;
 
     private IdKName duke;
+    private CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
 
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/DaUser.png"));
     private Image dukeImage = new Image(this.getClass().getResourceAsStream("/images/DaDuke.png"));
@@ -54,6 +57,10 @@ public class MainWindow extends AnchorPane {
     /**
      * Creates two dialog boxes, one echoing user input and the other containing Duke's reply and then appends them to
      * the dialog container. Clears the user input after processing.
+     * <p>
+     * While tasks are still loading, commands that change the list (and anything typed after them)
+     * are queued and answered in order once loading finishes, so the UI never waits on the loader.
+     * Input typed while queued commands are still being answered joins the queue, even after loading finished.
      */
     @FXML
     private void handleUserInput() {
@@ -64,12 +71,25 @@ public class MainWindow extends AnchorPane {
         if (input == null || input.isBlank()) {
             return;
         }
-        String response = duke.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getDukeDialog(response, dukeImage)
-        );
         userInput.clear();
+        dialogContainer.getChildren().add(DialogBox.getUserDialog(input, userImage));
+        if (pending.isDone() && (duke.isReady() || duke.isReadOnly(input))) {
+            respond(input);
+            return;
+        }
+        if (!duke.isReady()) {
+            appendBot("Still loading your tasks; I'll do that as soon as they are all loaded.");
+        }
+        pending = pending.thenCompose(v -> duke.getReadiness())
+                .thenRunAsync(() -> respond(input), Platform::runLater);
+    }
+
+    /**
+     * Appends Duke's reply to the input, and saves and closes the window on "bye".
+     */
+    private void respond(String input) {
+        String response = duke.getResponse(input);
+        dialogContainer.getChildren().add(DialogBox.getDukeDialog(response, dukeImage));
         if (input.trim().equalsIgnoreCase("bye")) {
             // Save before closing
             try {
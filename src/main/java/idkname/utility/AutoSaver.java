@@ -0,0 +1,177 @@
+package idkname.utility;
+
+import java.io.IOException;
+
+import idkname.task.Task;
+
+/**
+ * Saves a {@link Storage} snapshot on a background thread after the task list changes.
+ * <p>
+ * Bursts of mutations are merged into one write: a save starts once the list has been
+ * quiet for {@code quietMillis}, or {@code maxDelayMillis} after the first unsaved
+ * mutation, whichever comes first. {@link Storage#save()} writes an immutable version of
+ * the list, so the UI thread is never blocked on file I/O. A {@link TaskList#batch batch} of
+ * mutations counts as one.
+ */
+public class AutoSaver implements TaskListListener {
+    private final Storage storage;
+    private final long quietNanos;
+    private final long maxDelayNanos;
+    private final Thread thread;
+    private boolean isDirty;
+    private boolean isClosed;
+    private long firstDirtyNanos;
+    private long lastDirtyNanos;
+    private boolean isBatching; // this and hasBatchChanges are only used by callbacks, under the list's lock
+    private boolean hasBatchChanges;
+
+    /**
+     * Constructs an autosaver for the given storage. Call {@link #start()} to begin saving.
+     *
+     * @param storage        the storage to save
+     * @param quietMillis    how long the list must stay unchanged before saving
+     * @param maxDelayMillis the longest a mutation may stay unsaved during continuous editing
+     */
+    public AutoSaver(Storage storage, long quietMillis, long maxDelayMillis) {
+        this.storage = storage;
+        this.quietNanos = quietMillis * 1_000_000;
+        this.maxDelayNanos = maxDelayMillis * 1_000_000;
+        this.thread = new Thread(this::run, "idkname-autosave");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the background saving thread.
+     */
+    public void start() {
+        this.thread.start();
+    }
+
+    @Override
+    public void onAdd(Task t) {
+        recordChange();
+    }
+
+    @Override
+    public void onDelete(int index) {
+        recordChange();
+    }
+
+    @Override
+    public void onMark(int index, boolean isDone) {
+        recordChange();
+    }
+
+    @Override
+    public void onDeleteAll(int[] indices) {
+        recordChange();
+    }
+
+    @Override
+    public void onMarkAll(int[] indices, boolean isDone) {
+        recordChange();
+    }
+
+    @Override
+    public void onBatchStart() {
+        this.isBatching = true;
+    }
+
+    @Override
+    public void onBatchRollback() {
+        this.hasBatchChanges = false;
+    }
+
+    @Override
+    public void onBatchEnd() {
+        this.isBatching = false;
+        if (this.hasBatchChanges) {
+            this.hasBatchChanges = false;
+            requestSave();
+        }
+    }
+
+    private void recordChange() {
+        if (this.isBatching) {
+            this.hasBatchChanges = true; // saved once the batch ends
+        } else {
+            requestSave();
+        }
+    }
+
+    /**
+     * Records that the list has changed and schedules a save.
+     */
+    public synchronized void requestSave() {
+        long now = System.nanoTime();
+        if (!this.isDirty) {
+            this.isDirty = true;
+            this.firstDirtyNanos = now;
+        }
+        this.lastDirtyNanos = now;
+        notifyAll();
+    }
+
+    /**
+     * Stops the background thread and saves any pending changes on the calling thread.
+     * The save counts as the exit save, so it is forced to disk in {@link Durability#ON_EXIT} mode.
+     *
+     * @throws IOException if the final save fails
+     */
+    public void flush() throws IOException {
+        boolean hasPending;
+        synchronized (this) {
+            this.isClosed = true;
+            hasPending = this.isDirty;
+            this.isDirty = false;
+            notifyAll();
+        }
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (hasPending) {
+            this.storage.save(true);
+        } else {
+            this.storage.sync();
+        }
+    }
+
+    private void run() {
+        while (awaitDue()) {
+            try {
+                this.storage.save();
+            } catch (IOException e) {
+                System.err.println("autosave error: " + e.getMessage());
+                requestSave(); // retry after the next quiet period
+            }
+        }
+    }
+
+    /**
+     * Blocks until a save is due and clears the dirty flag.
+     *
+     * @return true if a save should run now, false if the autosaver was closed
+     */
+    private synchronized boolean awaitDue() {
+        try {
+            while (!this.isClosed) {
+                if (!this.isDirty) {
+                    wait();
+                    continue;
+                }
+                long due = Math.min(this.lastDirtyNanos + this.quietNanos, this.firstDirtyNanos + this.maxDelayNanos);
+                long remaining = due - System.nanoTime();
+                if (remaining <= 0) {
+                    this.isDirty = false;
+                    return true;
+                }
+                wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
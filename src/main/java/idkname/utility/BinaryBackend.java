@@ -0,0 +1,28 @@
+package idkname.utility;
+
+import java.io.IOException;
+
+/**
+ * Keeps the snapshot in the compact {@link BinarySnapshot} format.
+ * <p>
+ * A text snapshot found on load is read through a {@link MappedTaskLoader} and migrated to
+ * the binary format on the next save, keeping the original as {@code <file>.bak}.
+ */
+public class BinaryBackend extends FileBackend {
+
+    /**
+     * Constructs a binary backend for the given snapshot file.
+     *
+     * @param filePath the path to the snapshot file
+     */
+    public BinaryBackend(String filePath) {
+        super(filePath, true);
+    }
+
+    @Override
+    protected long loadText(TaskList tasks) throws IOException {
+        MappedTaskLoader loader = new MappedTaskLoader(getFilePath());
+        loader.load(tasks);
+        return loader.getSnapshotSeq();
+    }
+}
@@ -0,0 +1,406 @@
+package idkname.utility;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import idkname.task.Deadline;
+import idkname.task.Event;
+import idkname.task.Task;
+import idkname.task.Todo;
+
+/**
+ * Reads and writes the compact binary snapshot format.
+ * <p>
+ * Layout (all numbers big-endian):
+ * <pre>
+ * header: int magic "IDKB" | short version | long journalSeq | int taskCount | int blockSize
+ * block:  int count | int payloadBytes | long[ceil(count / 64)] doneBits | record * count
+ * record: byte type | int descLength | UTF-8 description | type-specific dates
+ *         D: long epochDay
+ *         E: long startEpochSecond | int startNano | long endEpochSecond | int endNano
+ * </pre>
+ * Tasks are grouped into blocks of at most {@link #BLOCK_SIZE} so a block can be
+ * read, written or skipped without touching the rest of the file. {@link #patch} uses
+ * this to save small changes in place: the done bits of changed blocks are overwritten
+ * and new tasks are appended as extra blocks, which may hold fewer than {@code BLOCK_SIZE}
+ * tasks. The header is written last, so until it is, readers see the old task count and
+ * ignore the appended blocks.
+ */
+final class BinarySnapshot {
+    static final int MAGIC = 0x49444B42; // "IDKB"
+    static final short VERSION = 1;
+    static final int BLOCK_SIZE = 1024;
+    static final int HEADER_BYTES = 4 + 2 + 8 + 4 + 4;
+    static final int BLOCK_HEADER_BYTES = 4 + 4;
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Returns whether the file starts with the binary snapshot magic number.
+     *
+     * @param path the file to check
+     * @return true for a binary snapshot, false for anything else (e.g. the text format)
+     * @throws IOException if the file cannot be read
+     */
+    static boolean isBinary(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && ch.read(magic) >= 0) {
+                // keep reading until four bytes or end of file
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Returns the task count recorded in the header of a binary snapshot.
+     *
+     * @param path the binary snapshot
+     * @return the number of tasks in the snapshot
+     * @throws IOException if the header cannot be read
+     */
+    static int readTaskCount(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(ch, ByteBuffer.allocate(HEADER_BYTES));
+            return header.getInt(4 + 2 + 8);
+        }
+    }
+
+    /**
+     * Writes the tasks as a binary snapshot to an empty channel.
+     *
+     * @param tasks       the tasks to write, in list order
+     * @param journalSeq  the last journal sequence number contained in the snapshot
+     * @param ch          the channel to write to, positioned at the start of the file;
+     *                    may be a compressing stream
+     * @throws IOException if the file cannot be written
+     */
+    static Layout write(List<Task> tasks, long journalSeq, WritableByteChannel ch) throws IOException {
+        writeFully(ch, header(journalSeq, tasks.size()));
+        Layout layout = new Layout();
+        ByteBuffer block = ByteBuffer.allocate(64 * 1024);
+        for (int from = 0; from < tasks.size(); from += BLOCK_SIZE) {
+            int to = Math.min(from + BLOCK_SIZE, tasks.size());
+            block = encodeBlock(tasks, from, to, block);
+            layout.addBlock(to - from, block.remaining());
+            writeFully(ch, block);
+        }
+        return layout;
+    }
+
+    private static ByteBuffer header(long journalSeq, int taskCount) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort(VERSION).putLong(journalSeq).putInt(taskCount).putInt(BLOCK_SIZE);
+        return header.flip();
+    }
+
+    /**
+     * Saves a partial change set into an existing snapshot file in place: rewrites the done bits
+     * of every block overlapping a dirty segment and appends blocks for the new tasks. Does not
+     * touch the header; call {@link #writeHeader} once the blocks are on disk.
+     *
+     * @param tasks   the current tasks; only positions that {@link ChangeSet#copyChanged} filled are read
+     * @param changes a partial change set relative to the snapshot described by {@code layout}
+     * @param layout  the block layout of the file, updated with the appended blocks
+     * @param ch      the snapshot file, opened for writing
+     * @throws IOException if the file cannot be written
+     */
+    static void patch(List<Task> tasks, ChangeSet changes, Layout layout, FileChannel ch) throws IOException {
+        BitSet dirty = changes.getDirtySegments();
+        int savedCount = layout.getTaskCount();
+        int lastPatched = -1;
+        for (int seg = dirty.nextSetBit(0); seg >= 0; seg = dirty.nextSetBit(seg + 1)) {
+            int first = seg * ChangeSet.SEGMENT_SIZE;
+            int to = Math.min(first + ChangeSet.SEGMENT_SIZE, savedCount);
+            for (int b = Math.max(layout.blockOf(first), lastPatched + 1);
+                    b < layout.getBlockCount() && layout.getFirstTask(b) < to; b++) {
+                ByteBuffer bits = doneBits(tasks, layout.getFirstTask(b), layout.getCount(b));
+                writeFully(ch, bits, layout.getOffset(b) + BLOCK_HEADER_BYTES);
+                lastPatched = b;
+            }
+        }
+        ByteBuffer block = ByteBuffer.allocate(64 * 1024);
+        int from = savedCount;
+        while (from < tasks.size()) {
+            // end blocks on segment boundaries, so a dirty segment never needs tasks of a neighbouring one
+            int to = Math.min((from / ChangeSet.SEGMENT_SIZE + 1) * ChangeSet.SEGMENT_SIZE, tasks.size());
+            block = encodeBlock(tasks, from, to, block);
+            int bytes = block.remaining();
+            writeFully(ch, block, layout.getEnd());
+            layout.addBlock(to - from, bytes);
+            from = to;
+        }
+        ch.truncate(layout.getEnd()); // drop blocks left by an earlier patch that never got its header
+    }
+
+    /**
+     * Overwrites the header of a snapshot file.
+     *
+     * @param journalSeq the last journal sequence number contained in the snapshot
+     * @param taskCount  the number of tasks in the snapshot
+     * @param ch         the snapshot file, opened for writing
+     * @throws IOException if the file cannot be written
+     */
+    static void writeHeader(long journalSeq, int taskCount, FileChannel ch) throws IOException {
+        writeFully(ch, header(journalSeq, taskCount), 0);
+    }
+
+    private static ByteBuffer doneBits(List<Task> tasks, int from, int count) {
+        ByteBuffer bits = ByteBuffer.allocate((count + 63) / 64 * 8);
+        long[] words = new long[(count + 63) / 64];
+        for (int i = 0; i < count; i++) {
+            if (tasks.get(from + i).isDone()) {
+                words[i >>> 6] |= 1L << (i & 63);
+            }
+        }
+        for (long word : words) {
+            bits.putLong(word);
+        }
+        return bits.flip();
+    }
+
+    /**
+     * Encodes tasks {@code [from, to)} as one block, growing the scratch buffer if needed.
+     *
+     * @return the buffer holding the block, flipped for reading
+     */
+    static ByteBuffer encodeBlock(List<Task> tasks, int from, int to, ByteBuffer scratch) {
+        int count = to - from;
+        ByteBuffer block = scratch;
+        while (true) {
+            block.clear();
+            try {
+                block.putInt(count).putInt(0);
+                block.put(doneBits(tasks, from, count));
+                for (int i = from; i < to; i++) {
+                    putRecord(block, tasks.get(i));
+                }
+                block.putInt(4, block.position() - BLOCK_HEADER_BYTES);
+                return block.flip();
+            } catch (BufferOverflowException e) {
+                block = ByteBuffer.allocate(block.capacity() * 2);
+            }
+        }
+    }
+
+    private static void putRecord(ByteBuffer block, Task t) {
+        byte[] desc = t.getDescription().getBytes(StandardCharsets.UTF_8);
+        block.put((byte) t.getTaskType().charAt(0));
+        block.putInt(desc.length);
+        block.put(desc);
+        switch (t.getTaskType()) {
+        case "D":
+            block.putLong(t.getDueDate().toEpochDay());
+            break;
+        case "E":
+            LocalDateTime[] period = t.getTimePeriod();
+            block.putLong(period[0].toEpochSecond(ZoneOffset.UTC)).putInt(period[0].getNano());
+            block.putLong(period[1].toEpochSecond(ZoneOffset.UTC)).putInt(period[1].getNano());
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Reads a binary snapshot, passing every task to {@code out} in file order.
+     *
+     * @param path   the file to read
+     * @param out    receives the tasks
+     * @param layout receives the block layout of the file, or null
+     * @return the journal sequence number recorded in the header
+     * @throws IOException if the file cannot be read, is truncated, or has an unknown version
+     */
+    static long read(Path path, Consumer<Task> out, Layout layout) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(ch, path.toString(), out, layout);
+        }
+    }
+
+    /**
+     * Reads a binary snapshot from a channel, e.g. a decompressing stream, one block at a time.
+     *
+     * @param ch     the channel to read, positioned at the magic number
+     * @param name   the name of the file, for error messages
+     * @param out    receives the tasks
+     * @param layout receives the block layout of the file, or null
+     * @return the journal sequence number recorded in the header
+     * @throws IOException if the snapshot cannot be read, is truncated, or has an unknown version
+     */
+    static long read(ReadableByteChannel ch, String name, Consumer<Task> out, Layout layout) throws IOException {
+        ByteBuffer header = readFully(ch, ByteBuffer.allocate(HEADER_BYTES));
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a binary snapshot: " + name);
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + name);
+        }
+        long journalSeq = header.getLong();
+        int remaining = header.getInt();
+        header.getInt(); // block size, only needed by writers patching blocks in place
+
+        ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+        ByteBuffer block = ByteBuffer.allocate(64 * 1024);
+        while (remaining > 0) {
+            readFully(ch, blockHeader.clear());
+            int count = blockHeader.getInt();
+            int payloadBytes = blockHeader.getInt();
+            if (count <= 0 || count > remaining || payloadBytes < 0) {
+                throw new IOException("Corrupt snapshot: " + name);
+            }
+            if (block.capacity() < payloadBytes) {
+                block = ByteBuffer.allocate(payloadBytes);
+            }
+            block.clear().limit(payloadBytes);
+            try {
+                decodeBlock(readFully(ch, block), count, out);
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt snapshot: " + name, e);
+            }
+            if (layout != null) {
+                layout.addBlock(count, BLOCK_HEADER_BYTES + payloadBytes);
+            }
+            remaining -= count;
+        }
+        return journalSeq;
+    }
+
+    /**
+     * Decodes the payload of one block (everything after the block header).
+     */
+    static void decodeBlock(ByteBuffer block, int count, Consumer<Task> out) throws IOException {
+        long[] doneBits = new long[(count + 63) / 64];
+        for (int i = 0; i < doneBits.length; i++) {
+            doneBits[i] = block.getLong();
+        }
+        byte[] array = block.array();
+        for (int i = 0; i < count; i++) {
+            byte type = block.get();
+            int len = block.getInt();
+            String desc = new String(array, block.arrayOffset() + block.position(), len, StandardCharsets.UTF_8);
+            block.position(block.position() + len);
+            Task t;
+            switch (type) {
+            case 'T':
+                t = new Todo(desc);
+                break;
+            case 'D':
+                t = new Deadline(desc, LocalDate.ofEpochDay(block.getLong()));
+                break;
+            case 'E':
+                LocalDateTime start = LocalDateTime.ofEpochSecond(block.getLong(), block.getInt(), ZoneOffset.UTC);
+                LocalDateTime end = LocalDateTime.ofEpochSecond(block.getLong(), block.getInt(), ZoneOffset.UTC);
+                t = new Event(desc, start, end);
+                break;
+            default:
+                throw new IOException("Corrupt snapshot: unknown task type " + type);
+            }
+            if ((doneBits[i >>> 6] & (1L << (i & 63))) != 0) {
+                t.markDone(true);
+            }
+            out.accept(t);
+        }
+    }
+
+    private static void writeFully(WritableByteChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            position += ch.write(buf, position);
+        }
+    }
+
+    private static ByteBuffer readFully(ReadableByteChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf) < 0) {
+                throw new EOFException("Truncated snapshot");
+            }
+        }
+        return buf.flip();
+    }
+
+    /**
+     * Where each block of a snapshot file starts and which tasks it holds.
+     */
+    static final class Layout {
+        private long[] offsets = new long[16];
+        private int[] firstTasks = new int[16];
+        private int[] counts = new int[16];
+        private int blockCount;
+        private int taskCount;
+        private long end = HEADER_BYTES;
+
+        /**
+         * Records the next block of the file.
+         *
+         * @param count the number of tasks in the block
+         * @param bytes the size of the block, including its header
+         */
+        void addBlock(int count, int bytes) {
+            if (this.blockCount == this.offsets.length) {
+                this.offsets = Arrays.copyOf(this.offsets, this.blockCount * 2);
+                this.firstTasks = Arrays.copyOf(this.firstTasks, this.blockCount * 2);
+                this.counts = Arrays.copyOf(this.counts, this.blockCount * 2);
+            }
+            this.offsets[this.blockCount] = this.end;
+            this.firstTasks[this.blockCount] = this.taskCount;
+            this.counts[this.blockCount] = count;
+            this.blockCount++;
+            this.taskCount += count;
+            this.end += bytes;
+        }
+
+        int getBlockCount() {
+            return this.blockCount;
+        }
+
+        int getTaskCount() {
+            return this.taskCount;
+        }
+
+        long getEnd() {
+            return this.end;
+        }
+
+        long getOffset(int block) {
+            return this.offsets[block];
+        }
+
+        int getFirstTask(int block) {
+            return this.firstTasks[block];
+        }
+
+        int getCount(int block) {
+            return this.counts[block];
+        }
+
+        /**
+         * Returns the index of the block holding the given task.
+         */
+        int blockOf(int task) {
+            int i = Arrays.binarySearch(this.firstTasks, 0, this.blockCount, task);
+            return i >= 0 ? i : -i - 2;
+        }
+    }
+}
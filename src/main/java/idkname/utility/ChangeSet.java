@@ -0,0 +1,89 @@
+package idkname.utility;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import idkname.task.Task;
+
+/**
+ * The changes made to a task list since its last snapshot, as seen by {@link Storage}.
+ * <p>
+ * The list is divided into fixed-size segments of {@link #SEGMENT_SIZE} tasks. A partial
+ * change set says that the first {@link #getSavedCount()} tasks are still the ones in the
+ * snapshot, in the same positions, and that only the done flags in the dirty segments may
+ * differ; every task after them was added since. Anything else, e.g. deleting a saved task,
+ * makes the change set complete, and the whole snapshot has to be rewritten.
+ */
+public class ChangeSet {
+    /** Number of tasks covered by one change marker. */
+    public static final int SEGMENT_SIZE = BinarySnapshot.BLOCK_SIZE;
+
+    private final boolean isPartial;
+    private final int savedCount;
+    private final BitSet dirtySegments;
+
+    private ChangeSet(boolean isPartial, int savedCount, BitSet dirtySegments) {
+        this.isPartial = isPartial;
+        this.savedCount = savedCount;
+        this.dirtySegments = dirtySegments;
+    }
+
+    /**
+     * Returns a change set that requires the whole snapshot to be rewritten.
+     *
+     * @return a complete change set
+     */
+    static ChangeSet complete() {
+        return new ChangeSet(false, 0, new BitSet());
+    }
+
+    /**
+     * Returns a change set limited to status changes in some segments and tasks appended after them.
+     *
+     * @param savedCount    the number of tasks in the snapshot, still at the same positions
+     * @param dirtySegments the segments whose done flags may have changed
+     * @return a partial change set
+     */
+    static ChangeSet partial(int savedCount, BitSet dirtySegments) {
+        return new ChangeSet(true, savedCount, dirtySegments);
+    }
+
+    /**
+     * Returns whether only the dirty segments and the appended tasks need writing.
+     *
+     * @return false if the whole snapshot must be rewritten
+     */
+    public boolean isPartial() {
+        return this.isPartial;
+    }
+
+    public int getSavedCount() {
+        return this.savedCount;
+    }
+
+    public BitSet getDirtySegments() {
+        return this.dirtySegments;
+    }
+
+    /**
+     * Copies the tasks a partial save needs: those in dirty segments and those appended since
+     * the snapshot. Every other position of the returned list is null.
+     *
+     * @param tasks the current tasks
+     * @return a list as long as {@code tasks}, holding copies of the changed tasks
+     */
+    List<Task> copyChanged(List<Task> tasks) {
+        Task[] copies = new Task[tasks.size()];
+        for (int seg = this.dirtySegments.nextSetBit(0); seg >= 0; seg = this.dirtySegments.nextSetBit(seg + 1)) {
+            int end = Math.min((seg + 1) * SEGMENT_SIZE, Math.min(this.savedCount, tasks.size()));
+            for (int i = seg * SEGMENT_SIZE; i < end; i++) {
+                copies[i] = tasks.get(i).copy();
+            }
+        }
+        for (int i = this.savedCount; i < tasks.size(); i++) {
+            copies[i] = tasks.get(i).copy();
+        }
+        return Arrays.asList(copies);
+    }
+}
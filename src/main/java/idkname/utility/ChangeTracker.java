@@ -0,0 +1,95 @@
+package idkname.utility;
+
+import java.util.BitSet;
+
+import idkname.task.Task;
+
+/**
+ * Records which parts of a task list changed since the last snapshot.
+ * <p>
+ * Keeps a dirty flag for the whole list and one change marker per {@link ChangeSet#SEGMENT_SIZE}
+ * tasks. Listener callbacks arrive under the list's lock, and {@link Storage} only reads or
+ * resets the tracker under the same lock, so no further synchronization is needed.
+ */
+class ChangeTracker implements TaskListListener {
+    private boolean isKnown;
+    private boolean isDirty;
+    private boolean isStructural;
+    private int savedCount;
+    private int size;
+    private BitSet dirtySegments = new BitSet();
+    private int batchStartSize;
+
+    /**
+     * Records that the list, currently {@code size} tasks long, matches the stored snapshot.
+     */
+    void reset(int size) {
+        this.isKnown = true;
+        this.isDirty = false;
+        this.isStructural = false;
+        this.savedCount = size;
+        this.size = size;
+        this.dirtySegments = new BitSet();
+    }
+
+    /**
+     * Forgets what the stored snapshot holds, e.g. after a failed save, so the next save is a full one.
+     */
+    void invalidate() {
+        this.isKnown = false;
+    }
+
+    /**
+     * Returns whether the list is known to match the stored snapshot.
+     */
+    boolean isClean() {
+        return this.isKnown && !this.isDirty;
+    }
+
+    /**
+     * Returns the changes since the last snapshot and starts tracking from the current state.
+     */
+    ChangeSet drain() {
+        ChangeSet changes = this.isKnown && !this.isStructural
+                ? ChangeSet.partial(this.savedCount, this.dirtySegments)
+                : ChangeSet.complete();
+        reset(this.size);
+        return changes;
+    }
+
+    @Override
+    public void onAdd(Task t) {
+        this.size++;
+        this.isDirty = true;
+    }
+
+    @Override
+    public void onDelete(int index) {
+        this.size--;
+        this.isDirty = true;
+        if (index < this.savedCount) {
+            this.isStructural = true; // later saved tasks shift down
+        }
+    }
+
+    @Override
+    public void onMark(int index, boolean isDone) {
+        this.isDirty = true;
+        if (index < this.savedCount) {
+            this.dirtySegments.set(index / ChangeSet.SEGMENT_SIZE);
+        }
+    }
+
+    @Override
+    public void onBatchStart() {
+        this.batchStartSize = this.size;
+    }
+
+    /**
+     * Restores the size; the changes stay recorded, which at worst saves more than needed.
+     */
+    @Override
+    public void onBatchRollback() {
+        this.size = this.batchStartSize;
+    }
+}
@@ -0,0 +1,139 @@
+package idkname.utility;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import idkname.task.Task;
+
+/**
+ * The task slots of a {@link TaskList}, stored in fixed-size chunks and published as
+ * immutable {@link TaskListView}s.
+ * <p>
+ * Publishing is O(1) apart from refreshing the per-chunk task counts: the version shares the chunks.
+ * Afterwards, the first change to a slot the version can see copies that chunk, and the chunk
+ * directory if needed; slots past the end of the version are written in place, so appending costs
+ * no copies. A mutation between two publications therefore copies at most O(CHUNK_SIZE + n / CHUNK_SIZE)
+ * references. Only the writer, holding the list's lock, calls these methods.
+ */
+class ChunkedSlots {
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Task[][] chunks = new Task[4][];
+    private int[] liveCounts = new int[4];
+    private int chunkCount;
+    private int slotCount;
+    private int size;
+
+    private boolean isDirectoryShared;
+    private int sharedChunks; // chunks of the last published version
+    private int sharedSlots; // slots of the last published version
+    private final BitSet copied = new BitSet(); // chunks copied since the last publication
+
+    private int[] liveBefore = new int[1];
+    private int validChunks; // entries of liveBefore that are still correct
+
+    /**
+     * Returns the number of slots, including those of deleted tasks.
+     */
+    int slotCount() {
+        return this.slotCount;
+    }
+
+    /**
+     * Returns the number of tasks.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the task in a slot, or null if its task was deleted.
+     */
+    Task get(int slot) {
+        return this.chunks[slot >>> CHUNK_SHIFT][slot & CHUNK_MASK];
+    }
+
+    /**
+     * Adds a task in a new slot at the end.
+     */
+    void append(Task t) {
+        int chunk = this.slotCount >>> CHUNK_SHIFT;
+        if (chunk == this.chunkCount) {
+            if (chunk == this.chunks.length) {
+                this.chunks = Arrays.copyOf(this.chunks, chunk * 2);
+                this.liveCounts = Arrays.copyOf(this.liveCounts, chunk * 2);
+                this.isDirectoryShared = false;
+            } else if (this.isDirectoryShared && chunk < this.sharedChunks) {
+                ownDirectory(); // the published version still reads this entry
+            }
+            this.chunks[chunk] = new Task[CHUNK_SIZE];
+            this.copied.set(chunk);
+            this.chunkCount++;
+        }
+        this.slotCount++;
+        set(this.slotCount - 1, t);
+    }
+
+    /**
+     * Replaces the task in a slot; null deletes it, leaving a tombstone.
+     */
+    void set(int slot, Task t) {
+        int chunk = slot >>> CHUNK_SHIFT;
+        Task[] slots = this.chunks[chunk];
+        if (slot < this.sharedSlots && !this.copied.get(chunk)) {
+            slots = slots.clone();
+            if (this.isDirectoryShared) {
+                ownDirectory();
+            }
+            this.chunks[chunk] = slots;
+            this.copied.set(chunk);
+        }
+        Task old = slots[slot & CHUNK_MASK];
+        if ((old == null) != (t == null)) {
+            int delta = t == null ? -1 : 1;
+            this.liveCounts[chunk] += delta;
+            this.size += delta;
+            this.validChunks = Math.min(this.validChunks, chunk + 1);
+        }
+        slots[slot & CHUNK_MASK] = t;
+    }
+
+    /**
+     * Removes the last slot.
+     */
+    void removeLast() {
+        set(this.slotCount - 1, null);
+        this.slotCount--;
+        if ((this.slotCount & CHUNK_MASK) == 0) {
+            this.chunkCount--; // the directory entry is replaced by the next append
+            this.validChunks = Math.min(this.validChunks, this.chunkCount);
+        }
+    }
+
+    /**
+     * Returns an immutable version of the current slots. Until the next change, further calls
+     * return equal versions.
+     */
+    TaskListView publish() {
+        if (this.validChunks < this.chunkCount || this.liveBefore.length < this.chunkCount) {
+            int[] counts = Arrays.copyOf(this.liveBefore, Math.max(1, this.chunkCount));
+            for (int c = Math.max(1, this.validChunks); c < this.chunkCount; c++) {
+                counts[c] = counts[c - 1] + this.liveCounts[c - 1];
+            }
+            this.liveBefore = counts;
+            this.validChunks = this.chunkCount;
+        }
+        this.isDirectoryShared = true;
+        this.sharedChunks = this.chunkCount;
+        this.sharedSlots = this.slotCount;
+        this.copied.clear();
+        return new TaskListView(this.chunks, this.slotCount, this.size, this.liveBefore);
+    }
+
+    private void ownDirectory() {
+        this.chunks = this.chunks.clone();
+        this.isDirectoryShared = false;
+    }
+}
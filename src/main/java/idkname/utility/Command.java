@@ -1,18 +1,36 @@
 package idkname.utility;
 
 import java.time.DateTimeException;
-import java.util.Scanner;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import idkname.task.Task;
+
 /**
  * Handles all user interactions with the application, including
  * greetings, goodbye messages, error messages, and command input.
+ * <p>
+ * Each input line is tokenized once by a {@link CommandLine}, and its command word is looked up in
+ * a {@link DispatchTable} of handlers built when the class is loaded. The tokenizer is reused from
+ * line to line, so a {@code Command} serves one thread at a time, normally the UI thread.
+ * <p>
+ * A line may also hold a pipeline of commands separated by ';', see {@link Parser#pipelineResult}.
+ * A pipeline runs as one {@link TaskList#batch batch}: it gets one combined response, and its changes
+ * reach the journal and the autosaver together. Prefixed with {@code atomic}, it changes the list
+ * only if every command in it succeeds.
  */
 public class Command {
-    private final Scanner scanner;
+    private static final DateTimeFormatter SLOT_FORMAT = DateTimeFormatter.ofPattern("MMM d yyyy HHmm");
+    private static final DispatchTable<Action> ACTIONS = actions();
+
     private final String name;
     private final TaskList tasks;
+    private final CommandLine line = new CommandLine();
+    private boolean hasFailed; // whether the last command was answered with an error
 
     /**
      * Creates a new {@code Command} facade bound to a bot name and task list.
@@ -21,7 +39,6 @@ public class Command {
      * @param tasks the task list this command handler operates on
      */
     public Command(String name, TaskList tasks) {
-        this.scanner = new Scanner(System.in);
         this.name = name;
         this.tasks = tasks;
     }
@@ -41,6 +58,7 @@ public class Command {
      * <ul>
      *   <li>{@code deadline description/yyyy-MM-dd}</li>
      *   <li>{@code event description/yyyy-MM-dd'T'HH:mm:ss/yyyy-MM-dd'T'HH:mm:ss}</li>
+     *   <li>{@code deadline description/next friday}, or any other phrase {@link NaturalDates} reads</li>
      * </ul>
      *
      * @return user-facing error message describing valid date/time formats
@@ -48,7 +66,8 @@ public class Command {
     public String showDateTimeError() {
         return String.format("Invalid date format.Please enter as:"
                 + "%n-deadline description/%nyyyy-MM-dd"
-                + "%n-event description/%nyyyy-MM-ddTHH:mm:ss/%nyyyy-MM-ddTHH:mm:ss");
+                + "%n-event description/%nyyyy-MM-ddTHH:mm:ss/%nyyyy-MM-ddTHH:mm:ss"
+                + "%nor as a phrase, e.g. next friday 5pm");
     }
 
     /**
@@ -78,9 +97,27 @@ public class Command {
      * @return formatted list, one task per line with 1-based indexing
      */
     public String printTaskList(TaskList taskList) {
-        var tasks = taskList.getTasks(); // ArrayList<Task>
-        return IntStream.range(0, tasks.size())
-                .mapToObj(i -> String.format("%d. %s%n", i + 1, tasks.get(i)))
+        StringBuilder sb = new StringBuilder();
+        int number = 0;
+        for (Task t : taskList.view()) { // one consistent version, read without locking
+            sb.append(String.format("%d. %s%n", ++number, t));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds a numbered, line-separated view of free periods.
+     *
+     * @param slots the free periods as [start, end] pairs
+     * @return formatted list, one period per line with 1-based indexing
+     */
+    public String printFreeSlots(List<LocalDateTime[]> slots) {
+        if (slots.isEmpty()) {
+            return String.format("No free time in that period.%n");
+        }
+        return IntStream.range(0, slots.size())
+                .mapToObj(i -> String.format("%d. from: %s to: %s%n", i + 1,
+                        slots.get(i)[0].format(SLOT_FORMAT), slots.get(i)[1].format(SLOT_FORMAT)))
                 .collect(Collectors.joining());
     }
 
@@ -134,7 +171,8 @@ public class Command {
      *   <li><code>list</code> — display all tasks</li>
      *   <li><code>bye</code> — exit the program</li>
      *   <li><code>sort</code> — sort all tasks by type</li>
-     *   <li><code>mark &lt;id&gt;</code>/<code>unmark &lt;id&gt;</code> — mark or unmark a task by ID</li>
+     *   <li><code>mark &lt;id&gt;</code>/<code>unmark &lt;id&gt;</code> — mark or unmark a task by ID,
+     *       or several at once (e.g., <code>mark 1-5,8</code>)</li>
      *   <li><code>find &lt;keyword&gt;</code> — search for tasks containing a keyword</li>
      *   <li><code>todo &lt;description&gt;</code> — add a todo task</li>
      *   <li><code>deadline &lt;description&gt; / yyyy-MM-dd</code> — add a deadline task with a due date</li>
@@ -143,6 +181,15 @@ public class Command {
      *   <li><code>sort &lt;taskType&gt;</code> — sort and display tasks filtered by type
      *       (e.g., <code>sort deadline</code>)</li>
      *   <li><code>help</code> — display this help message</li>
+     *   <li><code>on yyyy-MM-ddTHH:mm:ss</code> — list the events taking place at a time</li>
+     *   <li><code>between / free yyyy-MM-ddTHH:mm:ss/yyyy-MM-ddTHH:mm:ss</code>
+     *       — list the events in a period, or the free time in it</li>
+     *   <li><code>due before / due on yyyy-MM-dd</code>, <code>overdue</code> — list deadlines not done yet</li>
+     *   <li><code>next &lt;k&gt; [deadline|event]</code> — list the k soonest deadlines and events not done yet</li>
+     *   <li><code>stats</code> — count tasks by type, done state and overdue deadlines</li>
+     *   <li><code>command; command; ...</code> — run several commands at once, optionally all or none
+     *       (e.g., <code>atomic todo a; mark 3</code>); a ';' inside double quotes or after a backslash
+     *       stays part of its command (e.g., <code>todo "buy milk; eggs"</code>)</li>
      * </ul>
      *
      * @return a formatted string containing the list of valid instructions and usage examples
@@ -153,13 +200,40 @@ public class Command {
                 + "%n1) list"
                 + "%n2) bye"
                 + "%n3) sort"
-                + "%n4) mark/unmark task id"
+                + "%n4) mark/unmark/delete task ids%n(eg. 3 or 1-5,8, or delete done)"
                 + "%n5) find description"
                 + "%n6) todo description"
                 + "%n7) deadline description/%nyyyy-mm-dd"
                 + "%n8) event description/%nyyyy-MM-ddTHH:mm:ss/%nyyyy-MM-ddTHH:mm:ss"
                 + "%n9) sort tasktype"
-                + "%n10) help");
+                + "%n10) help"
+                + "%n11) on yyyy-MM-ddTHH:mm:ss"
+                + "%n12) between yyyy-MM-ddTHH:mm:ss/%nyyyy-MM-ddTHH:mm:ss"
+                + "%n13) free yyyy-MM-ddTHH:mm:ss/%nyyyy-MM-ddTHH:mm:ss"
+                + "%n14) due before/on yyyy-mm-dd"
+                + "%n15) overdue"
+                + "%n16) next count [deadline/event]"
+                + "%n17) stats"
+                + "%n18) command; command; ..."
+                + "%n(a ; inside \"quotes\" or after \\ stays in the command,"
+                + "%nprefix with atomic to apply all or none)");
+    }
+
+    /**
+     * Returns whether the input is a command that only reads the task list,
+     * and can therefore run while tasks are still being loaded.
+     *
+     * @param userInput the raw user input
+     * @return false for commands that add, delete, mark or unmark tasks
+     */
+    public boolean isReadOnly(String userInput) {
+        CommandLine line = this.line.reset(userInput);
+        if (isPipeline(userInput, line)) {
+            ParseResult<List<String>> pipeline = Parser.pipelineResult(pipelineOf(userInput, line));
+            return !pipeline.isOk() || isReadOnly(pipeline.value());
+        }
+        Action action = ACTIONS.get(userInput, line.commandStart(), line.commandEnd());
+        return action == null || action.isReadOnly;
     }
 
     /**
@@ -169,9 +243,10 @@ public class Command {
      * <ul>
      *   <li><code>bye</code> — exit the program</li>
      *   <li><code>list</code> — display all tasks</li>
-     *   <li><code>mark &lt;id&gt;</code> — mark a task as done</li>
-     *   <li><code>unmark &lt;id&gt;</code> — unmark a task</li>
-     *   <li><code>delete &lt;id&gt;</code> — delete a task</li>
+     *   <li><code>mark &lt;ids&gt;</code> — mark tasks as done, e.g. <code>mark 1-500</code></li>
+     *   <li><code>unmark &lt;ids&gt;</code> — unmark tasks</li>
+     *   <li><code>delete &lt;ids&gt;</code> — delete tasks, e.g. <code>delete 3,7,9-20</code></li>
+     *   <li><code>delete done</code> — delete every completed task</li>
      *   <li><code>todo &lt;description&gt;</code> — add a todo task</li>
      *   <li><code>deadline &lt;description&gt; /by yyyy-MM-dd</code> — add a deadline task</li>
      *   <li><code>event &lt;description&gt; /from yyyy-MM-ddTHH:mm:ss /to yyyy-MM-ddTHH:mm:ss</code>
@@ -179,39 +254,244 @@ public class Command {
      *   <li><code>find &lt;keyword&gt;</code> — search for tasks matching a keyword</li>
      *   <li><code>sort</code> — sort all tasks by type (todo, deadline, event)</li>
      *   <li><code>sort &lt;todo|deadline|event&gt;</code> — sort and display tasks filtered by type</li>
+     *   <li><code>on &lt;datetime&gt;</code> — list the events taking place at that time</li>
+     *   <li><code>between &lt;from&gt;/&lt;to&gt;</code> — list the events overlapping a period</li>
+     *   <li><code>free &lt;from&gt;/&lt;to&gt;</code> — list the parts of a period no event takes up</li>
+     *   <li><code>due before &lt;date&gt;</code>, <code>due on &lt;date&gt;</code> — list deadlines not done yet
+     *       due before or on a date</li>
+     *   <li><code>overdue</code> — list deadlines not done yet that are past their due date</li>
+     *   <li><code>next &lt;k&gt; [deadline|event]</code> — list the k soonest upcoming deadlines and events
+     *       not done yet, e.g. <code>next 5 deadline</code></li>
+     *   <li><code>stats</code> — show how many tasks of each type there are, how many are done and how many
+     *       deadlines are overdue</li>
+     *   <li><code>&lt;command&gt;; &lt;command&gt;; ...</code> — run a pipeline of commands, e.g.
+     *       <code>todo a; todo b; mark 3; delete 1</code>, with one combined response</li>
+     *   <li><code>atomic &lt;command&gt;; ...</code> — run a pipeline only if every command in it succeeds</li>
      * </ul>
      * Handles invalid commands and errors gracefully by showing appropriate error messages.
+     * Commands that change the list run with it locked, so a background loader never interleaves
+     * with them. Read-only commands take no lock here: they read a published version of the list,
+     * or briefly lock it themselves to consult an index.
      */
     public String getResponse(String userInput) {
-        String[] parts = Parser.ordinaryParse(userInput);
-        String command = parts[0].toLowerCase();
-        String arg = parts.length > 1 ? parts[1] : null;
+        CommandLine line = this.line.reset(userInput);
+        if (isPipeline(userInput, line)) {
+            return respondToPipeline(pipelineOf(userInput, line), line.isCommand("atomic"));
+        }
+        Action action = ACTIONS.get(userInput, line.commandStart(), line.commandEnd());
+        String arg = line.argument();
+
+        if (action == null || action.isReadOnly) {
+            return respond(action, arg);
+        }
+        synchronized (tasks) {
+            return respond(action, arg);
+        }
+    }
+
+    /**
+     * Returns whether a line holds a pipeline rather than a single command.
+     */
+    private static boolean isPipeline(String userInput, CommandLine line) {
+        return line.isCommand("atomic") || userInput.indexOf(';') >= 0;
+    }
+
+    /**
+     * Returns the commands of a pipeline line, without its {@code atomic} prefix, or null if nothing follows it.
+     */
+    private static String pipelineOf(String userInput, CommandLine line) {
+        return line.isCommand("atomic") ? line.argument() : userInput;
+    }
+
+    private boolean isReadOnly(List<String> commands) {
+        for (String command : commands) {
+            CommandLine line = this.line.reset(command);
+            Action action = ACTIONS.get(command, line.commandStart(), line.commandEnd());
+            if (action != null && !action.isReadOnly) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs the commands of a pipeline in order and joins their responses. A pipeline that changes the
+     * list runs as one {@link TaskList#batch batch} under its lock, so no other command sees it half done.
+     * An atomic one stops at the first command that fails, and the batch then undoes what the commands
+     * before it did; the journal and the autosaver never see a failed pipeline.
+     */
+    private String respondToPipeline(String input, boolean isAtomic) {
+        ParseResult<List<String>> pipeline = input == null ? null : Parser.pipelineResult(input);
+        if (pipeline == null || (pipeline.isOk() && pipeline.value().isEmpty())) {
+            return showMissingArgumentError();
+        }
+        if (!pipeline.isOk()) {
+            return String.format("%s%n", pipeline.error().describe(input));
+        }
+        List<String> commands = pipeline.value();
+        if (isReadOnly(commands)) {
+            return respondToAll(commands, false);
+        }
+        return isAtomic
+                ? tasks.batch(() -> respondToAll(commands, true), response -> this.hasFailed)
+                : tasks.batch(() -> respondToAll(commands, false));
+    }
+
+    /**
+     * Runs commands in order and joins their responses, or, if {@code isAtomic}, stops at the first one
+     * that fails and explains why nothing was changed.
+     */
+    private String respondToAll(List<String> commands, boolean isAtomic) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < commands.size(); i++) {
+            String response = respondTo(commands.get(i));
+            if (isAtomic && this.hasFailed) {
+                return String.format("Nothing was changed: command %d of %d failed.%n%s",
+                        i + 1, commands.size(), response);
+            }
+            sb.append(response);
+            if (!response.endsWith("\n")) {
+                sb.append(System.lineSeparator());
+            }
+        }
+        return sb.toString();
+    }
+
+    private String respondTo(String command) {
+        CommandLine line = this.line.reset(command);
+        return respond(ACTIONS.get(command, line.commandStart(), line.commandEnd()), line.argument());
+    }
 
+    /**
+     * Runs a handler. Bad dates are reported through {@link ParseResult}s without exceptions; the
+     * exceptions still caught here come from malformed task numbers. Error responses are recorded
+     * through {@link #fail}, so a pipeline can tell that the command failed.
+     */
+    private String respond(Action action, String arg) {
+        this.hasFailed = false;
+        if (action == null) {
+            return fail(arg == null ? showMissingArgumentError() : showUnknownCommandError());
+        }
+        if (arg == null && action.needsArgument) {
+            return fail(showMissingArgumentError());
+        }
         try {
-            return switch (command) {
-                case "bye" -> "Bye. Hope to see you again soon!\n";
-                case "list" -> printTaskList(tasks) + "\n";
-                case "help" -> showHelp();
-                case "mark" -> tasks.markDoneOrUndone(true, arg);
-                case "unmark" -> tasks.markDoneOrUndone(false, arg);
-                case "delete" -> tasks.delete(arg);
-                case "todo" -> tasks.add("todo", arg);
-                case "deadline" -> tasks.add("deadline", arg);
-                case "event" -> tasks.add("event", arg);
-                case "find" -> printTaskList(tasks.find(arg));
-                case "sort" -> printTaskList(arg == null
-                        ? tasks.sortTasks()
-                        : tasks.sortTasks(arg));
-                default -> (arg == null
-                        ? showMissingArgumentError()
-                        : showUnknownCommandError());
-            };
+            return action.handler.respond(this, arg);
         } catch (NumberFormatException e) {
-            return showNumberFormatError();
+            return fail(showNumberFormatError());
         } catch (IndexOutOfBoundsException e) {
-            return showIndexOutOfBoundsError();
+            return fail(showIndexOutOfBoundsError());
         } catch (DateTimeException e) {
-            return showDateTimeError();
+            return fail(showDateTimeError());
+        }
+    }
+
+    /**
+     * Records that the current command failed, and returns the message explaining why.
+     */
+    private String fail(String message) {
+        this.hasFailed = true;
+        return message;
+    }
+
+    /**
+     * Builds the table of every command word and its handler, looked up once per input line.
+     */
+    private static DispatchTable<Action> actions() {
+        DispatchTable<Action> table = new DispatchTable<>(24);
+        table.put("bye", new Action(true, false, (c, arg) -> "Bye. Hope to see you again soon!\n"));
+        table.put("list", new Action(true, false, (c, arg) -> c.printTaskList(c.tasks) + "\n"));
+        table.put("help", new Action(true, false, (c, arg) -> c.showHelp()));
+        table.put("mark", new Action(false, true, (c, arg) -> c.tasks.markDoneOrUndone(true, arg)));
+        table.put("unmark", new Action(false, true, (c, arg) -> c.tasks.markDoneOrUndone(false, arg)));
+        table.put("delete", new Action(false, true, (c, arg) -> c.tasks.delete(arg)));
+        table.put("todo", new Action(false, true, (c, arg) -> c.tasks.add("todo", arg)));
+        table.put("deadline", new Action(false, true, (c, arg) -> c.addParsed(Parser.deadlineResult(arg))));
+        table.put("event", new Action(false, true, (c, arg) -> c.addParsed(Parser.eventResult(arg))));
+        table.put("find", new Action(true, true, (c, arg) -> c.printTaskList(c.tasks.find(arg))));
+        table.put("sort", new Action(true, false, (c, arg) -> c.printTaskList(arg == null
+                ? c.tasks.sortTasks()
+                : c.tasks.sortTasks(arg))));
+        table.put("on", new Action(true, true, (c, arg) -> {
+            ParseResult<LocalDateTime> time = Parser.dateTimeResult(arg);
+            return time.isOk() ? c.printTaskList(c.tasks.eventsOn(time.value())) : c.fail(c.showDateTimeError());
+        }));
+        table.put("between", new Action(true, true, (c, arg) -> {
+            ParseResult<LocalDateTime[]> period = Parser.periodResult(arg);
+            return period.isOk()
+                    ? c.printTaskList(c.tasks.eventsBetween(period.value()[0], period.value()[1]))
+                    : c.fail(c.showDateTimeError());
+        }));
+        table.put("free", new Action(true, true, (c, arg) -> {
+            ParseResult<LocalDateTime[]> period = Parser.periodResult(arg);
+            return period.isOk()
+                    ? c.printFreeSlots(c.tasks.freeSlots(period.value()[0], period.value()[1]))
+                    : c.fail(c.showDateTimeError());
+        }));
+        table.put("due", new Action(true, true, Command::showDue));
+        table.put("overdue", new Action(true, false, (c, arg) ->
+                c.printTaskList(c.tasks.dueBefore(LocalDate.now()))));
+        table.put("stats", new Action(true, false, (c, arg) -> c.tasks.stats(LocalDate.now())));
+        table.put("next", new Action(true, true, Command::showNext));
+        return table;
+    }
+
+    private String showDue(String arg) {
+        CommandLine line = this.line.reset(arg);
+        if (!line.hasArgument()) {
+            return fail(showMissingArgumentError());
+        }
+        boolean isBefore = line.isCommand("before");
+        if (!isBefore && !line.isCommand("on")) {
+            return fail(showUnknownCommandError());
+        }
+        ParseResult<LocalDate> date = Parser.dateResult(arg, line.argumentStart(), line.argumentEnd());
+        if (!date.isOk()) {
+            return fail(showDateTimeError());
+        }
+        return printTaskList(isBefore ? tasks.dueBefore(date.value()) : tasks.dueOn(date.value()));
+    }
+
+    /**
+     * Adds a parsed deadline or event, or explains the expected format if the input could not be parsed.
+     */
+    private String addParsed(ParseResult<? extends Task> parsed) {
+        return parsed.isOk() ? tasks.addWithResponse(parsed.value()) : fail(showDateTimeError());
+    }
+
+    private String showNext(String arg) {
+        CommandLine line = this.line.reset(arg);
+        int k = Integer.parseInt(arg, line.commandStart(), line.commandEnd(), 10); // may throw NumberFormatException
+        if (k <= 0) {
+            throw new NumberFormatException("Count must be positive: " + k);
+        }
+        String type = line.argument();
+        if (type != null && !type.equalsIgnoreCase("deadline") && !type.equalsIgnoreCase("event")) {
+            return fail(String.format("%s%n", ParseError.UNKNOWN_TASK_TYPE.describe(type)));
+        }
+        return printTaskList(tasks.next(k, type, LocalDateTime.now()));
+    }
+
+    /**
+     * Responds to one command word, given the rest of the line, or null if there was nothing after it.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        String respond(Command command, String arg);
+    }
+
+    /**
+     * A command handler and how it must be run.
+     */
+    private static final class Action {
+        private final boolean isReadOnly; // runs without locking the list
+        private final boolean needsArgument; // answered with a usage hint when nothing follows the word
+        private final Handler handler;
+
+        Action(boolean isReadOnly, boolean needsArgument, Handler handler) {
+            this.isReadOnly = isReadOnly;
+            this.needsArgument = needsArgument;
+            this.handler = handler;
         }
     }
 }
@@ -0,0 +1,131 @@
+package idkname.utility;
+
+/**
+ * Splits a line of user input into its command word and the argument after it, in one pass.
+ * <p>
+ * Only the boundaries of the two parts are recorded; the command word is compared in place and the
+ * argument is copied out on request, so tokenizing builds no arrays and uses no regular expressions.
+ * Whitespace is anything {@link String#trim} would remove. An instance can be reset and reused for
+ * every line, but by one thread at a time.
+ */
+public final class CommandLine {
+    private CharSequence line = "";
+    private int commandStart;
+    private int commandEnd;
+    private int argumentStart;
+    private int argumentEnd;
+
+    /**
+     * Tokenizes a new line, replacing the previous one.
+     *
+     * @param line the raw user input
+     * @return this tokenizer, for chaining
+     */
+    public CommandLine reset(CharSequence line) {
+        assert line != null : "line must not be null";
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int start = 0;
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        int wordEnd = start;
+        while (wordEnd < end && line.charAt(wordEnd) > ' ') {
+            wordEnd++;
+        }
+        int argStart = wordEnd;
+        while (argStart < end && line.charAt(argStart) <= ' ') {
+            argStart++;
+        }
+        this.line = line;
+        this.commandStart = start;
+        this.commandEnd = wordEnd;
+        this.argumentStart = argStart;
+        this.argumentEnd = end;
+        return this;
+    }
+
+    /**
+     * Returns the line being tokenized.
+     */
+    public CharSequence line() {
+        return this.line;
+    }
+
+    /**
+     * Returns the index of the first character of the command word.
+     */
+    public int commandStart() {
+        return this.commandStart;
+    }
+
+    /**
+     * Returns the index just past the last character of the command word.
+     */
+    public int commandEnd() {
+        return this.commandEnd;
+    }
+
+    /**
+     * Returns whether the command word equals the given word, ignoring case.
+     *
+     * @param word the word to compare with
+     * @return true if the command word matches
+     */
+    public boolean isCommand(String word) {
+        int length = this.commandEnd - this.commandStart;
+        if (length != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = this.line.charAt(this.commandStart + i);
+            if (c != word.charAt(i) && Character.toLowerCase(c) != Character.toLowerCase(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the command word as typed. Empty for a blank line.
+     *
+     * @return a copy of the command word
+     */
+    public String command() {
+        return this.line.subSequence(this.commandStart, this.commandEnd).toString();
+    }
+
+    /**
+     * Returns whether anything follows the command word.
+     *
+     * @return true if there is an argument
+     */
+    public boolean hasArgument() {
+        return this.argumentStart < this.argumentEnd;
+    }
+
+    /**
+     * Returns everything after the command word, without surrounding whitespace.
+     *
+     * @return a copy of the argument, or null if there is none
+     */
+    public String argument() {
+        return hasArgument() ? this.line.subSequence(this.argumentStart, this.argumentEnd).toString() : null;
+    }
+
+    /**
+     * Returns the index of the first character of the argument.
+     */
+    public int argumentStart() {
+        return this.argumentStart;
+    }
+
+    /**
+     * Returns the index just past the last character of the argument.
+     */
+    public int argumentEnd() {
+        return this.argumentEnd;
+    }
+}
@@ -0,0 +1,35 @@
+package idkname.utility;
+
+/**
+ * Keeps the snapshot GZIP-compressed, in either the text or the binary format.
+ * <p>
+ * Snapshot files are mostly repeated type codes, separators and dates, so they compress well;
+ * this suits archived task files where size matters more than save time. Snapshots are
+ * streamed through the compressor, and any file backend can load them, since the GZIP header
+ * is detected on load.
+ */
+public class CompressedBackend extends FileBackend {
+    /** The level zlib itself uses by default: a good ratio at a moderate cost. */
+    public static final int DEFAULT_LEVEL = 6;
+
+    /**
+     * Constructs a compressed backend with the default DEFLATE level.
+     *
+     * @param filePath the path to the snapshot file
+     * @param isBinary true to compress binary snapshots, false for text
+     */
+    public CompressedBackend(String filePath, boolean isBinary) {
+        this(filePath, isBinary, DEFAULT_LEVEL);
+    }
+
+    /**
+     * Constructs a compressed backend.
+     *
+     * @param filePath the path to the snapshot file
+     * @param isBinary true to compress binary snapshots, false for text
+     * @param level    the DEFLATE level, from 0 (store only) to 9 (smallest, slowest)
+     */
+    public CompressedBackend(String filePath, boolean isBinary, int level) {
+        super(filePath, isBinary, level);
+    }
+}
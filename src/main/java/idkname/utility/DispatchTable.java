@@ -0,0 +1,87 @@
+package idkname.utility;
+
+/**
+ * Maps command words to handlers, looked up case-insensitively straight from a region of the input.
+ * <p>
+ * An open-addressing hash table with linear probing, sized once for a fixed set of words. Looking
+ * a word up hashes and compares its characters in place, so neither a lower-case copy nor a
+ * substring of the input is created. Filled once and then only read, so it can be shared.
+ *
+ * @param <V> the type of the handlers
+ */
+public final class DispatchTable<V> {
+    private final String[] keys;
+    private final Object[] values;
+    private final int mask;
+
+    /**
+     * Creates an empty table with room for the given number of words.
+     *
+     * @param capacity the maximum number of words
+     */
+    public DispatchTable(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) * 2; // at most half full
+        this.keys = new String[slots];
+        this.values = new Object[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Adds a word and its handler.
+     *
+     * @param word  the word, in lower case
+     * @param value the handler
+     * @throws IllegalStateException if the table is full
+     */
+    public void put(String word, V value) {
+        int slot = hash(word, 0, word.length()) & this.mask;
+        for (int probes = 0; probes < this.keys.length; probes++, slot = (slot + 1) & this.mask) {
+            if (this.keys[slot] == null || this.keys[slot].equals(word)) {
+                this.keys[slot] = word;
+                this.values[slot] = value;
+                return;
+            }
+        }
+        throw new IllegalStateException("Dispatch table is full");
+    }
+
+    /**
+     * Returns the handler of the word in a region of the input, ignoring case.
+     *
+     * @param input the input
+     * @param start the index of the first character of the word
+     * @param end   the index just past the word
+     * @return the handler, or null if the word is not in the table
+     */
+    @SuppressWarnings("unchecked")
+    public V get(CharSequence input, int start, int end) {
+        int slot = hash(input, start, end) & this.mask;
+        for (String key = this.keys[slot]; key != null; key = this.keys[slot]) {
+            if (matches(key, input, start, end)) {
+                return (V) this.values[slot];
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return null;
+    }
+
+    private static int hash(CharSequence s, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(s.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String key, CharSequence s, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (Character.toLowerCase(s.charAt(start + i)) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
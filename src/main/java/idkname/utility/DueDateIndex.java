@@ -0,0 +1,84 @@
+package idkname.utility;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import idkname.task.Task;
+
+/**
+ * Buckets the deadlines that are not done yet by due date.
+ * <p>
+ * Each bucket maps stable ids to tasks, so within a day deadlines keep their list order, and adding,
+ * deleting or marking a deadline touches one bucket. Range queries walk only the buckets in range.
+ * Done deadlines are left out entirely; {@link TaskList} removes a deadline when it is marked done
+ * and adds it back when it is unmarked. Not thread-safe; {@link TaskList} only uses it under its lock.
+ */
+class DueDateIndex {
+    private final TreeMap<LocalDate, TreeMap<Integer, Task>> buckets = new TreeMap<>();
+    private int size;
+
+    /**
+     * Adds a deadline that is not done.
+     *
+     * @param id       the stable id of the deadline
+     * @param deadline the deadline
+     */
+    void add(int id, Task deadline) {
+        if (this.buckets.computeIfAbsent(deadline.getDueDate(), d -> new TreeMap<>()).put(id, deadline) == null) {
+            this.size++;
+        }
+    }
+
+    /**
+     * Removes a deadline added with the same id. Does nothing if it is not in the index.
+     *
+     * @param id       the stable id of the deadline
+     * @param deadline the deadline
+     */
+    void remove(int id, Task deadline) {
+        TreeMap<Integer, Task> bucket = this.buckets.get(deadline.getDueDate());
+        if (bucket == null || bucket.remove(id) == null) {
+            return;
+        }
+        this.size--;
+        if (bucket.isEmpty()) {
+            this.buckets.remove(deadline.getDueDate());
+        }
+    }
+
+    /**
+     * Passes every deadline due strictly before the given date to the consumer, by due date.
+     *
+     * @param date     the exclusive upper bound
+     * @param consumer receives the matching deadlines
+     */
+    void before(LocalDate date, Consumer<Task> consumer) {
+        for (Map<Integer, Task> bucket : this.buckets.headMap(date, false).values()) {
+            bucket.values().forEach(consumer);
+        }
+    }
+
+    /**
+     * Passes every deadline due on the given date to the consumer.
+     *
+     * @param date     the due date
+     * @param consumer receives the matching deadlines
+     */
+    void on(LocalDate date, Consumer<Task> consumer) {
+        Map<Integer, Task> bucket = this.buckets.get(date);
+        if (bucket != null) {
+            bucket.values().forEach(consumer);
+        }
+    }
+
+    /**
+     * Returns the number of deadlines in the index.
+     *
+     * @return the number of undone deadlines
+     */
+    int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,25 @@
+package idkname.utility;
+
+/**
+ * How hard {@link Storage} works to get snapshots onto the disk itself rather than the OS cache.
+ * Snapshots are always replaced atomically; this only controls when {@code fsync} is paid for.
+ */
+public enum Durability {
+    /** Never force writes; a power loss may lose recent snapshots. */
+    NONE,
+    /** Force only the final save made on exit. */
+    ON_EXIT,
+    /** Force every snapshot, once per batch of concurrent save requests. */
+    PER_BATCH;
+
+    /**
+     * Parses a durability name such as {@code none}, {@code on-exit} or {@code per-batch}.
+     *
+     * @param name the name, case-insensitive, with '-' or '_' as separator
+     * @return the matching durability
+     * @throws IllegalArgumentException if the name is not recognised
+     */
+    public static Durability parse(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,224 @@
+package idkname.utility;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import idkname.task.Task;
+
+/**
+ * An interval tree over the periods of events: a treap ordered by (start, id) in which every node
+ * also records the latest end in its subtree.
+ * <p>
+ * A subtree whose latest end is before a query, or whose root starts after it, cannot overlap the
+ * query and is skipped, so a query only descends into subtrees holding at least one match. The treap
+ * stays balanced in expectation whatever order events are added in. Periods are closed intervals.
+ * Not thread-safe; {@link TaskList} only uses it under its lock.
+ */
+class EventIntervalTree {
+    private Node root;
+    private int size;
+
+    /**
+     * Adds an event.
+     *
+     * @param id    the stable id of the event
+     * @param event the event
+     */
+    void add(int id, Task event) {
+        LocalDateTime[] period = event.getTimePeriod();
+        this.root = insert(this.root, new Node(id, event, period[0], period[1]));
+        this.size++;
+    }
+
+    /**
+     * Removes an event added with the same id.
+     *
+     * @param id    the stable id of the event
+     * @param event the event
+     */
+    void remove(int id, Task event) {
+        int before = this.size;
+        this.root = delete(this.root, event.getTimePeriod()[0], id);
+        assert this.size == before - 1 : "event was not in the tree";
+    }
+
+    /**
+     * Passes every event overlapping the closed interval [from, to] to the consumer, by start.
+     *
+     * @param from     the start of the interval
+     * @param to       the end of the interval
+     * @param consumer receives the matching events
+     */
+    void overlapping(LocalDateTime from, LocalDateTime to, Consumer<Task> consumer) {
+        overlapping(this.root, from, to, consumer);
+    }
+
+    /**
+     * Returns the parts of the closed interval [from, to] that no event covers.
+     *
+     * @param from the start of the interval
+     * @param to   the end of the interval
+     * @return the free periods as [start, end] pairs, in order
+     */
+    List<LocalDateTime[]> gaps(LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime[]> gaps = new ArrayList<>();
+        LocalDateTime[] freeFrom = {from};
+        overlapping(this.root, from, to, event -> {
+            LocalDateTime[] period = event.getTimePeriod();
+            if (period[0].isAfter(freeFrom[0])) {
+                gaps.add(new LocalDateTime[] {freeFrom[0], period[0]});
+            }
+            if (period[1].isAfter(freeFrom[0])) {
+                freeFrom[0] = period[1];
+            }
+        });
+        if (freeFrom[0].isBefore(to)) {
+            gaps.add(new LocalDateTime[] {freeFrom[0], to});
+        }
+        return gaps;
+    }
+
+    /**
+     * Returns the number of events in the tree.
+     *
+     * @return the number of events
+     */
+    int size() {
+        return this.size;
+    }
+
+    private static void overlapping(Node node, LocalDateTime from, LocalDateTime to, Consumer<Task> consumer) {
+        if (node == null || node.maxEnd.isBefore(from)) {
+            return; // everything below ends before the interval
+        }
+        overlapping(node.left, from, to, consumer);
+        if (node.start.isAfter(to)) {
+            return; // this node and its right subtree start after the interval
+        }
+        if (!node.end.isBefore(from)) {
+            consumer.accept(node.event);
+        }
+        overlapping(node.right, from, to, consumer);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node delete(Node node, LocalDateTime start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            this.size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Joins two treaps where every key of the first is smaller than every key of the second.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node top = node.left;
+        node.left = top.right;
+        top.right = node;
+        node.update();
+        top.update();
+        return top;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node top = node.right;
+        node.right = top.left;
+        top.left = node;
+        node.update();
+        top.update();
+        return top;
+    }
+
+    private static int compare(LocalDateTime start, int id, Node node) {
+        int byStart = start.compareTo(node.start);
+        return byStart != 0 ? byStart : Integer.compare(id, node.id);
+    }
+
+    private static final class Node {
+        private final int id;
+        private final Task event;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final int priority;
+        private LocalDateTime maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(int id, Task event, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.event = event;
+            this.start = start;
+            this.end = end;
+            this.priority = mix(id);
+            this.maxEnd = end;
+        }
+
+        /**
+         * Recomputes the latest end in this subtree after a child changed.
+         */
+        void update() {
+            LocalDateTime latest = this.end;
+            if (this.left != null && this.left.maxEnd.isAfter(latest)) {
+                latest = this.left.maxEnd;
+            }
+            if (this.right != null && this.right.maxEnd.isAfter(latest)) {
+                latest = this.right.maxEnd;
+            }
+            this.maxEnd = latest;
+        }
+
+        private static int mix(int id) {
+            // ids arrive in increasing order; scramble them into well-spread priorities
+            long h = (id + 1) * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,519 @@
+package idkname.utility;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import idkname.task.Task;
+
+/**
+ * Base class of the backends that keep the snapshot in one file and the journal next to it
+ * in {@code <file>.journal}.
+ * <p>
+ * A snapshot is written to {@code <file>.tmp} and atomically moved over the old one, so a
+ * crash mid-save leaves the previous snapshot intact. Loading detects the format from the
+ * file header, so every file backend reads text and binary snapshots, compressed or not;
+ * subclasses decide which format is written and how an uncompressed text snapshot is parsed.
+ * Text snapshots and the journal are always UTF-8, whatever the platform's default charset.
+ * <p>
+ * A compressed snapshot is a GZIP (DEFLATE) stream wrapping either format. It is written and
+ * read through streams with fixed-size buffers, so the whole file is never held in memory.
+ * <p>
+ * Uncompressed binary snapshots also support differential saves: the blocks holding changed
+ * tasks are patched in place and new tasks appended (see {@link BinarySnapshot#patch}). Unlike a
+ * full save this does not go through a temporary file, so a crash mid-patch relies on the journal,
+ * which is only truncated after the patch, to restore the changes.
+ */
+public abstract class FileBackend implements StorageBackend {
+    /** Compression level meaning "write uncompressed snapshots". */
+    public static final int UNCOMPRESSED = -1;
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String BACKUP_SUFFIX = ".bak";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String UNREADABLE_SUFFIX = ".unreadable-";
+    private static final int GZIP_MAGIC = 0x1f8b;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int SAMPLE_SIZE = 64 * 1024;
+    private static final int MAX_EXTRA_BLOCKS = 16;
+
+    private final String filePath;
+    private final boolean isBinary;
+    private final int compressionLevel;
+    private BufferedWriter journalWriter;
+    private boolean isOutdated;
+    private BinarySnapshot.Layout layout;
+
+    /**
+     * Constructs a backend for the given snapshot file.
+     *
+     * @param filePath the path to the snapshot file
+     * @param isBinary true to write {@link BinarySnapshot binary} snapshots, false for text
+     */
+    protected FileBackend(String filePath, boolean isBinary) {
+        this(filePath, isBinary, UNCOMPRESSED);
+    }
+
+    /**
+     * Constructs a backend for the given snapshot file that may compress its snapshots.
+     *
+     * @param filePath         the path to the snapshot file
+     * @param isBinary         true to write {@link BinarySnapshot binary} snapshots, false for text
+     * @param compressionLevel a {@link java.util.zip.Deflater} level from 0 to 9,
+     *                         or {@link #UNCOMPRESSED}
+     */
+    protected FileBackend(String filePath, boolean isBinary, int compressionLevel) {
+        if (compressionLevel != UNCOMPRESSED && (compressionLevel < 0 || compressionLevel > 9)) {
+            throw new IllegalArgumentException("Compression level must be 0-9: " + compressionLevel);
+        }
+        this.filePath = filePath;
+        this.isBinary = isBinary;
+        this.compressionLevel = compressionLevel;
+    }
+
+    public String getFilePath() {
+        return this.filePath;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A text snapshot read by a binary backend is outdated, and is kept as
+     * {@code <file>.bak} when the next save migrates it.
+     */
+    @Override
+    public long load(TaskList tasks) throws IOException {
+        Path path = Path.of(this.filePath);
+        this.layout = null;
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException(this.filePath);
+        }
+        if (isCompressed(path)) {
+            return loadCompressed(path, tasks);
+        }
+        if (BinarySnapshot.isBinary(path)) {
+            TaskBatcher batcher = new TaskBatcher(tasks);
+            BinarySnapshot.Layout readLayout = new BinarySnapshot.Layout();
+            long seq = BinarySnapshot.read(path, batcher, readLayout);
+            batcher.flush();
+            this.isOutdated = false;
+            this.layout = readLayout;
+            return seq;
+        }
+        this.isOutdated = this.isBinary;
+        return loadText(tasks);
+    }
+
+    /**
+     * Appends every valid task of the uncompressed text snapshot to the list, skipping malformed lines.
+     * Reads line by line; subclasses may parse the file faster.
+     *
+     * @param tasks the list to load into
+     * @return the sequence number from the {@code J | seq} header, or 0 if there is none
+     * @throws IOException if the file cannot be read
+     */
+    protected long loadText(TaskList tasks) throws IOException {
+        try (InputStream in = Files.newInputStream(Path.of(this.filePath))) {
+            return readLines(in, tasks);
+        }
+    }
+
+    private long loadCompressed(Path path, TaskList tasks) throws IOException {
+        try (InputStream in = openCompressed(path)) {
+            if (startsWithBinaryMagic(in)) {
+                TaskBatcher batcher = new TaskBatcher(tasks);
+                long seq = BinarySnapshot.read(Channels.newChannel(in), this.filePath, batcher, null);
+                batcher.flush();
+                this.isOutdated = false;
+                return seq;
+            }
+            this.isOutdated = this.isBinary;
+            return readLines(in, tasks);
+        }
+    }
+
+    private static InputStream openCompressed(Path path) throws IOException {
+        InputStream file = Files.newInputStream(path);
+        try {
+            return new BufferedInputStream(new GZIPInputStream(file, STREAM_BUFFER_SIZE), STREAM_BUFFER_SIZE);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns whether the stream starts with the binary snapshot magic number, without consuming it.
+     */
+    private static boolean startsWithBinaryMagic(InputStream in) throws IOException {
+        in.mark(4);
+        byte[] magic = in.readNBytes(4);
+        in.reset();
+        return magic.length == 4 && ByteBuffer.wrap(magic).getInt() == BinarySnapshot.MAGIC;
+    }
+
+    private static long readLines(InputStream in, TaskList tasks) throws IOException {
+        long snapshotSeq = 0;
+        TaskBatcher batcher = new TaskBatcher(tasks);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8),
+                STREAM_BUFFER_SIZE);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split("\\s*\\|\\s*", 5);
+            if (parts.length == 2 && parts[0].equals("J")) {
+                snapshotSeq = parseSeq(parts[1]);
+                continue;
+            }
+            Task t = Storage.decode(parts);
+            if (t != null) {
+                batcher.accept(t);
+            }
+        }
+        batcher.flush();
+        return snapshotSeq;
+    }
+
+    @Override
+    public void save(List<Task> tasks, long journalSeq, boolean isForced, SaveMetrics metrics) throws IOException {
+        System.err.println("save at: " + this.filePath);
+        Path target = Path.of(this.filePath);
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null && !Files.exists(parent)) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Path.of(this.filePath + TEMP_SUFFIX);
+        this.layout = null;
+        BinarySnapshot.Layout written = null;
+        long start = System.nanoTime();
+        long forceNanos = 0;
+        try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (this.compressionLevel == UNCOMPRESSED) {
+                written = writeSnapshot(tasks, journalSeq, ch);
+            } else {
+                GZIPOutputStream out = new LeveledGzipOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(ch), STREAM_BUFFER_SIZE),
+                        this.compressionLevel);
+                writeSnapshot(tasks, journalSeq, Channels.newChannel(out));
+                out.finish();
+                out.flush(); // the channel is closed by the try block, which also closes the streams
+            }
+            if (isForced) {
+                long forceStart = System.nanoTime();
+                ch.force(true);
+                forceNanos = System.nanoTime() - forceStart;
+            }
+        }
+        if (this.isOutdated) {
+            Files.copy(target, Path.of(this.filePath + BACKUP_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            this.isOutdated = false;
+        }
+        long renameStart = System.nanoTime();
+        replace(temp, target);
+        if (isForced) {
+            forceDirectory(target);
+        }
+        long end = System.nanoTime();
+        this.layout = written;
+        metrics.recordCommit(renameStart - start - forceNanos, forceNanos, end - renameStart, isForced);
+        System.err.println("Saving to: " + target.toAbsolutePath());
+    }
+
+    /**
+     * Returns whether {@link #saveDelta} can save the given changes to the stored snapshot.
+     * <p>
+     * Only uncompressed binary snapshots whose block layout is known (written or read by this backend)
+     * can be patched. Once appends have split the file into many more blocks than a full save would
+     * write, a full save is required to compact it.
+     *
+     * @param changes   the changes since the stored snapshot
+     * @param taskCount the number of tasks in the list now
+     * @return true if a differential save is possible
+     */
+    public boolean canSaveDelta(ChangeSet changes, int taskCount) {
+        if (this.layout == null || !changes.isPartial() || this.isOutdated
+                || changes.getSavedCount() != this.layout.getTaskCount()) {
+            return false;
+        }
+        int fullBlocks = (taskCount + BinarySnapshot.BLOCK_SIZE - 1) / BinarySnapshot.BLOCK_SIZE;
+        return this.layout.getBlockCount() <= 2 * fullBlocks + MAX_EXTRA_BLOCKS;
+    }
+
+    /**
+     * Writes only the changed parts of the snapshot: the tasks in dirty segments and the tasks appended
+     * since. Only called after {@link #canSaveDelta} returned true for the same changes.
+     *
+     * @param tasks      the tasks, as returned by {@link ChangeSet#copyChanged}
+     * @param journalSeq the last journal sequence number contained in the tasks
+     * @param changes    the changes since the stored snapshot
+     * @param isForced   whether the snapshot must be on stable storage when this returns
+     * @param metrics    receives the timings of the write
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void saveDelta(List<Task> tasks, long journalSeq, ChangeSet changes, boolean isForced,
+            SaveMetrics metrics) throws IOException {
+        BinarySnapshot.Layout patched = this.layout;
+        this.layout = null; // unknown until the patch has completed
+        long start = System.nanoTime();
+        long forceNanos = 0;
+        try (FileChannel ch = FileChannel.open(Path.of(this.filePath), StandardOpenOption.WRITE)) {
+            BinarySnapshot.patch(tasks, changes, patched, ch);
+            if (isForced) {
+                long forceStart = System.nanoTime();
+                ch.force(false); // the blocks must be on disk before the header refers to them
+                forceNanos += System.nanoTime() - forceStart;
+            }
+            BinarySnapshot.writeHeader(journalSeq, patched.getTaskCount(), ch);
+            if (isForced) {
+                long forceStart = System.nanoTime();
+                ch.force(false);
+                forceNanos += System.nanoTime() - forceStart;
+            }
+        }
+        this.layout = patched;
+        metrics.recordCommit(System.nanoTime() - start - forceNanos, forceNanos, 0, isForced);
+    }
+
+    /**
+     * Writes the snapshot in this backend's format.
+     *
+     * @return the block layout for a binary snapshot, or null for text
+     */
+    private BinarySnapshot.Layout writeSnapshot(List<Task> tasks, long journalSeq, WritableByteChannel ch)
+            throws IOException {
+        if (this.isBinary) {
+            return BinarySnapshot.write(tasks, journalSeq, ch);
+        }
+        writeText(tasks, journalSeq, ch);
+        return null;
+    }
+
+    private static void writeText(List<Task> tasks, long seq, WritableByteChannel ch) throws IOException {
+        Writer w = new BufferedWriter(Channels.newWriter(ch, StandardCharsets.UTF_8));
+        w.write("J | " + seq);
+        w.write(System.lineSeparator());
+        for (Task t : tasks) {
+            w.write(Storage.encode(t));
+            w.write(System.lineSeparator());
+        }
+        w.flush(); // the channel is closed, and forced if needed, by the caller
+    }
+
+    private static void replace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces the directory entry of a renamed file to disk. Not supported on every platform,
+     * in which case the rename is left to the file system.
+     */
+    private static void forceDirectory(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException e) {
+            // e.g. Windows cannot open a directory as a channel
+        }
+    }
+
+    @Override
+    public void sync() throws IOException {
+        Path target = Path.of(this.filePath);
+        try (FileChannel ch = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        forceDirectory(target);
+    }
+
+    @Override
+    public boolean isOutdated() {
+        return this.isOutdated;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Exact for binary snapshots; for text snapshots, extrapolated from the lines in the first 64 KiB.
+     */
+    @Override
+    public long estimateTaskCount() throws IOException {
+        Path path = Path.of(this.filePath);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        if (BinarySnapshot.isBinary(path)) {
+            return BinarySnapshot.readTaskCount(path);
+        }
+        if (isCompressed(path)) {
+            try (InputStream in = openCompressed(path)) {
+                if (startsWithBinaryMagic(in)) {
+                    return ByteBuffer.wrap(in.readNBytes(BinarySnapshot.HEADER_BYTES)).getInt(4 + 2 + 8);
+                }
+                return estimateLines(ByteBuffer.wrap(in.readNBytes(SAMPLE_SIZE)), readUncompressedSize(path));
+            }
+        }
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer sample = ByteBuffer.allocate((int) Math.min(ch.size(), SAMPLE_SIZE));
+            while (sample.hasRemaining() && ch.read(sample) >= 0) {
+                // fill the sample
+            }
+            return estimateLines(sample.flip(), ch.size());
+        }
+    }
+
+    private static long estimateLines(ByteBuffer sample, long totalBytes) {
+        int lines = 0;
+        for (int i = 0; i < sample.limit(); i++) {
+            lines += sample.get(i) == '\n' ? 1 : 0;
+        }
+        return sample.limit() == 0 ? 0 : Math.max(1, lines * totalBytes / sample.limit());
+    }
+
+    /**
+     * Returns the uncompressed size recorded in the GZIP trailer (modulo 2^32, so only a hint for huge files).
+     */
+    private static long readUncompressedSize(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            ch.read(trailer, Math.max(0, ch.size() - 4));
+            return trailer.position() == 4 ? Integer.toUnsignedLong(trailer.getInt(0)) : 0;
+        }
+    }
+
+    private static boolean isCompressed(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(2);
+            while (magic.hasRemaining() && ch.read(magic) >= 0) {
+                // keep reading until two bytes or end of file
+            }
+            return !magic.hasRemaining() && (magic.getShort(0) & 0xffff) == GZIP_MAGIC;
+        }
+    }
+
+    @Override
+    public long getSize() throws IOException {
+        Path path = Path.of(this.filePath);
+        return Files.exists(path) ? Files.size(path) : 0;
+    }
+
+    @Override
+    public synchronized void append(String record) throws IOException {
+        appendAll(List.of(record));
+    }
+
+    @Override
+    public synchronized void appendAll(List<String> records) throws IOException {
+        if (this.journalWriter == null) {
+            Path journal = Path.of(this.filePath + JOURNAL_SUFFIX);
+            Path parent = journal.toAbsolutePath().getParent();
+            if (parent != null && !Files.exists(parent)) {
+                Files.createDirectories(parent);
+            }
+            this.journalWriter = Files.newBufferedWriter(journal, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        for (String record : records) {
+            this.journalWriter.write(record);
+            this.journalWriter.write(System.lineSeparator());
+        }
+        this.journalWriter.flush();
+    }
+
+    @Override
+    public BufferedReader readJournal() throws IOException {
+        try {
+            return Files.newBufferedReader(Path.of(this.filePath + JOURNAL_SUFFIX), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null; // nothing journaled since the last snapshot
+        }
+    }
+
+    @Override
+    public synchronized void truncateJournal() throws IOException {
+        if (this.journalWriter != null) {
+            this.journalWriter.close();
+            this.journalWriter = null;
+        }
+        Path journal = Path.of(this.filePath + JOURNAL_SUFFIX);
+        if (Files.exists(journal)) {
+            Files.newBufferedWriter(journal, StandardCharsets.UTF_8).close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The snapshot is renamed to {@code <file>.unreadable-<millis>} and the journal to the same name
+     * plus {@code .journal}, so an earlier unreadable snapshot is never replaced.
+     */
+    @Override
+    public synchronized String setAside() throws IOException {
+        if (this.journalWriter != null) {
+            this.journalWriter.close();
+            this.journalWriter = null;
+        }
+        this.layout = null;
+        this.isOutdated = false;
+        Path snapshot = Path.of(this.filePath);
+        Path journal = Path.of(this.filePath + JOURNAL_SUFFIX);
+        String aside = this.filePath + UNREADABLE_SUFFIX + System.currentTimeMillis();
+        boolean isMoved = false;
+        if (Files.exists(snapshot)) {
+            Files.move(snapshot, Path.of(aside));
+            isMoved = true;
+        }
+        if (Files.exists(journal)) {
+            Files.move(journal, Path.of(aside + JOURNAL_SUFFIX));
+            isMoved = true;
+        }
+        return isMoved ? aside : null;
+    }
+
+    private static long parseSeq(String s) {
+        try {
+            return Long.parseLong(s.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * A {@link GZIPOutputStream} with a configurable DEFLATE level.
+     */
+    private static class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, STREAM_BUFFER_SIZE);
+            this.def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package idkname.utility;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import idkname.task.Task;
+
+/**
+ * Keeps the snapshot and journal in memory, for tests and benchmarks that should not touch the disk.
+ * Everything is lost when the backend is garbage collected.
+ */
+public class InMemoryBackend implements StorageBackend {
+    private final StringBuilder journal = new StringBuilder();
+    private List<Task> snapshot;
+    private long snapshotSeq;
+
+    @Override
+    public synchronized long load(TaskList tasks) throws FileNotFoundException {
+        if (this.snapshot == null) {
+            throw new FileNotFoundException("no in-memory snapshot");
+        }
+        TaskBatcher batcher = new TaskBatcher(tasks);
+        for (Task t : this.snapshot) {
+            batcher.accept(t.copy()); // the stored tasks must not change with the list
+        }
+        batcher.flush();
+        return this.snapshotSeq;
+    }
+
+    @Override
+    public synchronized void save(List<Task> tasks, long journalSeq, boolean isForced, SaveMetrics metrics) {
+        long start = System.nanoTime();
+        this.snapshot = new ArrayList<>(tasks);
+        this.snapshotSeq = journalSeq;
+        metrics.recordCommit(System.nanoTime() - start, 0, 0, isForced);
+    }
+
+    @Override
+    public void sync() {
+        // nothing to force
+    }
+
+    @Override
+    public boolean isOutdated() {
+        return false;
+    }
+
+    @Override
+    public synchronized long estimateTaskCount() {
+        return this.snapshot == null ? 0 : this.snapshot.size();
+    }
+
+    @Override
+    public long getSize() {
+        return 0;
+    }
+
+    @Override
+    public synchronized void append(String record) {
+        this.journal.append(record).append('\n');
+    }
+
+    @Override
+    public synchronized BufferedReader readJournal() {
+        return this.journal.length() == 0 ? null : new BufferedReader(new StringReader(this.journal.toString()));
+    }
+
+    @Override
+    public synchronized void truncateJournal() {
+        this.journal.setLength(0);
+    }
+}
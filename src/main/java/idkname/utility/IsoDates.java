@@ -0,0 +1,186 @@
+package idkname.utility;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Fixed-width decoders for the ISO-8601 dates written by {@link Storage} and typed by users.
+ * <p>
+ * These read digits straight out of a byte buffer or a character sequence, so no String is created
+ * and no {@link java.time.format.DateTimeFormatter} is involved. Anything that is not in the exact
+ * fixed-width shape returns null, and callers fall back to the general {@link Parser} methods.
+ */
+public final class IsoDates {
+    private static final int DATE_LENGTH = 10; // yyyy-MM-dd
+    private static final int DATE_TIME_MINUTES_LENGTH = 16; // yyyy-MM-ddTHH:mm
+    private static final int DATE_TIME_SECONDS_LENGTH = 19; // yyyy-MM-ddTHH:mm:ss
+
+    private IsoDates() {
+    }
+
+    /**
+     * Decodes {@code yyyy-MM-dd} from the given region of the buffer.
+     *
+     * @param buf the buffer to read from; its position is not changed
+     * @param off absolute offset of the first character
+     * @param len length of the region
+     * @return the date, or null if the region is not a valid fixed-width ISO date
+     */
+    public static LocalDate parseDate(ByteBuffer buf, int off, int len) {
+        if (len != DATE_LENGTH || buf.get(off + 4) != '-' || buf.get(off + 7) != '-') {
+            return null;
+        }
+        int year = digits(buf, off, 4);
+        int month = digits(buf, off + 5, 2);
+        int day = digits(buf, off + 8, 2);
+        if (!isValidDate(year, month, day)) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Decodes {@code yyyy-MM-ddTHH:mm} or {@code yyyy-MM-ddTHH:mm:ss} from the given region of the buffer.
+     * The {@code T} may be lowercase, as {@link java.time.format.DateTimeFormatter#ISO_LOCAL_DATE_TIME} allows.
+     *
+     * @param buf the buffer to read from; its position is not changed
+     * @param off absolute offset of the first character
+     * @param len length of the region
+     * @return the datetime, or null if the region is not a valid fixed-width ISO datetime
+     */
+    public static LocalDateTime parseDateTime(ByteBuffer buf, int off, int len) {
+        if (len != DATE_TIME_MINUTES_LENGTH && len != DATE_TIME_SECONDS_LENGTH) {
+            return null;
+        }
+        LocalDate date = parseDate(buf, off, DATE_LENGTH);
+        if (date == null || !isTimeSeparator(buf.get(off + 10)) || buf.get(off + 13) != ':') {
+            return null;
+        }
+        int hour = digits(buf, off + 11, 2);
+        int minute = digits(buf, off + 14, 2);
+        int second = 0;
+        if (len == DATE_TIME_SECONDS_LENGTH) {
+            if (buf.get(off + 16) != ':') {
+                return null;
+            }
+            second = digits(buf, off + 17, 2);
+        }
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+        return date.atTime(hour, minute, second);
+    }
+
+    /**
+     * Decodes {@code yyyy-MM-dd} from the given region of a character sequence.
+     *
+     * @param s   the characters to read from
+     * @param off index of the first character
+     * @param len length of the region
+     * @return the date, or null if the region is not a valid fixed-width ISO date
+     */
+    public static LocalDate parseDate(CharSequence s, int off, int len) {
+        if (len != DATE_LENGTH || s.charAt(off + 4) != '-' || s.charAt(off + 7) != '-') {
+            return null;
+        }
+        int year = digits(s, off, 4);
+        int month = digits(s, off + 5, 2);
+        int day = digits(s, off + 8, 2);
+        if (!isValidDate(year, month, day)) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Decodes {@code yyyy-MM-ddTHH:mm} or {@code yyyy-MM-ddTHH:mm:ss} from the given region of a
+     * character sequence. The {@code T} may be lowercase.
+     *
+     * @param s   the characters to read from
+     * @param off index of the first character
+     * @param len length of the region
+     * @return the datetime, or null if the region is not a valid fixed-width ISO datetime
+     */
+    public static LocalDateTime parseDateTime(CharSequence s, int off, int len) {
+        if (len != DATE_TIME_MINUTES_LENGTH && len != DATE_TIME_SECONDS_LENGTH) {
+            return null;
+        }
+        LocalDate date = parseDate(s, off, DATE_LENGTH);
+        if (date == null || !isTimeSeparator(s.charAt(off + 10)) || s.charAt(off + 13) != ':') {
+            return null;
+        }
+        int hour = digits(s, off + 11, 2);
+        int minute = digits(s, off + 14, 2);
+        int second = 0;
+        if (len == DATE_TIME_SECONDS_LENGTH) {
+            if (s.charAt(off + 16) != ':') {
+                return null;
+            }
+            second = digits(s, off + 17, 2);
+        }
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+        return date.atTime(hour, minute, second);
+    }
+
+    private static boolean isTimeSeparator(int c) {
+        return c == 'T' || c == 't';
+    }
+
+    /**
+     * Returns whether the fields form a real calendar date (four-digit, non-negative years only).
+     */
+    static boolean isValidDate(int year, int month, int day) {
+        if (year < 0 || month < 1 || month > 12 || day < 1) {
+            return false;
+        }
+        return day <= monthLength(year, month);
+    }
+
+    private static int monthLength(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean isLeap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+            return isLeap ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * Reads {@code count} ASCII digits as a non-negative number, or returns -1 if any byte is not a digit.
+     */
+    private static int digits(ByteBuffer buf, int off, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int d = buf.get(off + i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /**
+     * Reads {@code count} ASCII digits as a non-negative number, or returns -1 if any character is not a digit.
+     */
+    private static int digits(CharSequence s, int off, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int d = s.charAt(off + i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
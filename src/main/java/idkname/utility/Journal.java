@@ -0,0 +1,277 @@
+package idkname.utility;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import idkname.task.Task;
+
+/**
+ * Append-only write-ahead log of task list mutations.
+ * <p>
+ * Every add, delete, mark and unmark is written as one small line, so a mutation
+ * costs O(1) I/O instead of a full rewrite of the snapshot file. Each record carries
+ * a sequence number; the snapshot written by {@link Storage#save()} remembers the last
+ * sequence number it contains, so records already folded into the snapshot are
+ * skipped on replay even if the journal was not truncated before a crash.
+ * All methods are synchronized, so a snapshot can be checkpointed from another thread.
+ * The records themselves are kept by a {@link StorageBackend}.
+ * <p>
+ * Record formats:
+ * <ul>
+ *   <li>Add: {@code seq | A | <snapshot line of the task>}</li>
+ *   <li>Delete: {@code seq | R | indices}</li>
+ *   <li>Mark: {@code seq | M | indices}</li>
+ *   <li>Unmark: {@code seq | U | indices}</li>
+ * </ul>
+ * where {@code indices} are zero-based, increasing and comma-separated, with runs written as
+ * ranges, e.g. {@code 4} or {@code 2,6,8-19}. A bulk command is one record. The records of a
+ * {@link TaskList#batch batch} are held back and appended together when it ends, with one flush;
+ * those of a batch that is undone are dropped.
+ */
+public class Journal implements TaskListListener {
+    private final StorageBackend backend;
+    private long lastSeq;
+    private boolean isBroken;
+    private List<String> pending; // records of the open batch, or null outside a batch
+    private long batchStartSeq;
+
+    /**
+     * Constructs a journal kept by the given backend.
+     *
+     * @param backend the backend storing the records
+     */
+    public Journal(StorageBackend backend) {
+        this.backend = backend;
+        this.lastSeq = 0;
+        this.isBroken = false;
+    }
+
+    /**
+     * Returns the sequence number of the last record written or replayed.
+     *
+     * @return the last sequence number
+     */
+    public synchronized long getLastSeq() {
+        return this.lastSeq;
+    }
+
+    /**
+     * Returns whether an append has failed since the last checkpoint.
+     * A broken journal no longer reflects the list, so the next snapshot must be written.
+     *
+     * @return true if a record could not be written
+     */
+    public synchronized boolean isBroken() {
+        return this.isBroken;
+    }
+
+    /**
+     * Applies every record newer than {@code afterSeq} to the given task list.
+     * Malformed or out-of-range records (e.g. a line torn by a crash) are skipped.
+     *
+     * @param tasks    the task list to replay into
+     * @param afterSeq the last sequence number already contained in the snapshot
+     * @return the number of records applied
+     * @throws IOException if the journal exists but cannot be read
+     */
+    public synchronized int replay(TaskList tasks, long afterSeq) throws IOException {
+        this.lastSeq = Math.max(this.lastSeq, afterSeq);
+        int applied = 0;
+        BufferedReader journal = this.backend.readJournal();
+        if (journal == null) {
+            return applied; // nothing journaled since the last snapshot
+        }
+        try (BufferedReader reader = journal) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int first = line.indexOf('|');
+                int second = first < 0 ? -1 : line.indexOf('|', first + 1);
+                if (second < 0) {
+                    continue;
+                }
+                long seq;
+                try {
+                    seq = Long.parseLong(line.substring(0, first).trim());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (seq <= afterSeq) {
+                    continue;
+                }
+                String op = line.substring(first + 1, second).trim();
+                String payload = line.substring(second + 1).trim();
+                if (apply(tasks, op, payload)) {
+                    applied++;
+                }
+                this.lastSeq = Math.max(this.lastSeq, seq);
+            }
+        }
+        return applied;
+    }
+
+    private boolean apply(TaskList tasks, String op, String payload) {
+        try {
+            switch (op) {
+            case "A":
+                Task t = Storage.decode(payload);
+                if (t == null) {
+                    return false;
+                }
+                tasks.add(t);
+                return true;
+            case "R":
+                int[] deleted = decodeIndices(payload);
+                if (deleted.length == 1) {
+                    tasks.remove(deleted[0]);
+                } else {
+                    tasks.removeAll(deleted);
+                }
+                return true;
+            case "M":
+                tasks.markAll(decodeIndices(payload), true);
+                return true;
+            case "U":
+                tasks.markAll(decodeIndices(payload), false);
+                return true;
+            default:
+                return false;
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void onAdd(Task t) {
+        append("A", Storage.encode(t));
+    }
+
+    @Override
+    public void onDelete(int index) {
+        append("R", String.valueOf(index));
+    }
+
+    @Override
+    public void onMark(int index, boolean isDone) {
+        append(isDone ? "M" : "U", String.valueOf(index));
+    }
+
+    @Override
+    public void onDeleteAll(int[] indices) {
+        append("R", encodeIndices(indices));
+    }
+
+    @Override
+    public void onMarkAll(int[] indices, boolean isDone) {
+        append(isDone ? "M" : "U", encodeIndices(indices));
+    }
+
+    @Override
+    public synchronized void onBatchStart() {
+        this.pending = new ArrayList<>();
+        this.batchStartSeq = this.lastSeq;
+    }
+
+    @Override
+    public synchronized void onBatchRollback() {
+        if (this.pending != null) {
+            this.pending.clear(); // never written, so nothing to replay
+            this.lastSeq = this.batchStartSeq;
+        }
+    }
+
+    @Override
+    public synchronized void onBatchEnd() {
+        List<String> records = this.pending;
+        this.pending = null;
+        if (records == null || records.isEmpty()) {
+            return;
+        }
+        try {
+            this.backend.appendAll(records);
+        } catch (IOException e) {
+            System.err.println("journal error: " + e.getMessage());
+            this.isBroken = true;
+        }
+    }
+
+    /**
+     * Writes increasing indices as a comma-separated list, collapsing runs into ranges.
+     */
+    static String encodeIndices(int[] indices) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < indices.length; i++) {
+            int from = indices[i];
+            while (i + 1 < indices.length && indices[i + 1] == indices[i] + 1) {
+                i++;
+            }
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(from);
+            if (indices[i] != from) {
+                sb.append('-').append(indices[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads indices written by {@link #encodeIndices(int[])}.
+     *
+     * @throws NumberFormatException if the list is malformed or not increasing
+     */
+    static int[] decodeIndices(String payload) {
+        int count = 0;
+        int[] indices = new int[8];
+        for (String part : payload.split(",")) {
+            int dash = part.indexOf('-', 1);
+            int from = Integer.parseInt(part.substring(0, dash < 0 ? part.length() : dash).trim());
+            int to = dash < 0 ? from : Integer.parseInt(part.substring(dash + 1).trim());
+            if (from < 0 || to < from || (count > 0 && from <= indices[count - 1])) {
+                throw new NumberFormatException("Indices must be increasing: " + payload);
+            }
+            for (int index = from; index <= to; index++) {
+                if (count == indices.length) {
+                    indices = Arrays.copyOf(indices, count * 2);
+                }
+                indices[count++] = index;
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    private synchronized void append(String op, String payload) {
+        this.lastSeq++;
+        String record = this.lastSeq + " | " + op + " | " + payload;
+        if (this.pending != null) {
+            this.pending.add(record);
+            return;
+        }
+        try {
+            this.backend.append(record);
+        } catch (IOException e) {
+            System.err.println("journal error: " + e.getMessage());
+            this.isBroken = true;
+        }
+    }
+
+    /**
+     * Discards journal records that are contained in a snapshot.
+     * The file is only truncated if no record was appended after {@code snapshotSeq};
+     * otherwise the records are kept and skipped by sequence number on replay.
+     *
+     * @param snapshotSeq the last sequence number contained in the snapshot just written
+     * @throws IOException if the journal cannot be truncated
+     */
+    public synchronized void checkpoint(long snapshotSeq) throws IOException {
+        if (snapshotSeq != this.lastSeq) {
+            return;
+        }
+        this.backend.truncateJournal();
+        this.isBroken = false;
+    }
+}
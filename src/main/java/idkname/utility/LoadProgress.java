@@ -0,0 +1,51 @@
+package idkname.utility;
+
+import idkname.task.Task;
+
+/**
+ * Counts tasks as they stream into a {@link TaskList} during a background load,
+ * for a "loading N/M" indicator.
+ */
+public class LoadProgress implements TaskListListener {
+    private final long expected;
+    private volatile int loaded;
+
+    /**
+     * Constructs a progress counter.
+     *
+     * @param expected the number of tasks the load is expected to produce, e.g. from
+     *                 {@link Storage#estimateTaskCount()}
+     */
+    public LoadProgress(long expected) {
+        this.expected = expected;
+    }
+
+    public int getLoaded() {
+        return this.loaded;
+    }
+
+    @Override
+    public void onAdd(Task t) {
+        this.loaded++; // only the loading thread writes
+    }
+
+    @Override
+    public void onDelete(int index) {
+        // the loader only appends
+    }
+
+    @Override
+    public void onMark(int index, boolean isDone) {
+        // the loader only appends
+    }
+
+    /**
+     * Returns the indicator text, e.g. {@code loading 4096/~120000 tasks}.
+     *
+     * @return the indicator text
+     */
+    @Override
+    public String toString() {
+        return String.format("loading %d/~%d tasks", this.loaded, Math.max(this.loaded, this.expected));
+    }
+}
@@ -0,0 +1,66 @@
+package idkname.utility;
+
+/**
+ * Records how much a single load read and how long it took,
+ * so different loading paths can be compared on the same file.
+ */
+public class LoadStats {
+    private final int taskCount;
+    private final long byteCount;
+    private final long nanos;
+
+    /**
+     * Constructs a record of one completed load.
+     *
+     * @param taskCount number of tasks produced
+     * @param byteCount number of bytes read
+     * @param nanos     elapsed wall-clock time in nanoseconds
+     */
+    public LoadStats(int taskCount, long byteCount, long nanos) {
+        this.taskCount = taskCount;
+        this.byteCount = byteCount;
+        this.nanos = nanos;
+    }
+
+    public int getTaskCount() {
+        return this.taskCount;
+    }
+
+    public long getByteCount() {
+        return this.byteCount;
+    }
+
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    /**
+     * Returns the load throughput in tasks per second.
+     *
+     * @return tasks per second, or 0 if no time was measured
+     */
+    public double tasksPerSecond() {
+        return this.nanos == 0 ? 0 : this.taskCount * 1e9 / this.nanos;
+    }
+
+    /**
+     * Returns the load throughput in mebibytes per second.
+     *
+     * @return MiB per second, or 0 if no time was measured
+     */
+    public double megabytesPerSecond() {
+        return this.nanos == 0 ? 0 : this.byteCount * 1e9 / this.nanos / (1024 * 1024);
+    }
+
+    /**
+     * Returns a one-line summary, e.g. {@code 100000 tasks, 3.1 MiB in 41.2 ms (2427184 tasks/s, 75.2 MiB/s)}.
+     *
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        return String.format("%d tasks, %.1f MiB in %.1f ms (%.0f tasks/s, %.1f MiB/s)",
+                this.taskCount, this.byteCount / (1024.0 * 1024), this.nanos / 1e6,
+                tasksPerSecond(), megabytesPerSecond());
+    }
+}
@@ -0,0 +1,44 @@
+package idkname.utility;
+
+import java.io.IOException;
+
+/**
+ * Keeps the snapshot in the text format, but reads it by memory-mapping the file and parsing
+ * the bytes in place. Large files are parsed in parallel by a {@link ParallelTaskLoader}.
+ */
+public class MappedBackend extends FileBackend {
+    private final boolean isParallel;
+
+    /**
+     * Constructs a memory-mapped backend that parses large snapshots in parallel.
+     *
+     * @param filePath the path to the snapshot file
+     */
+    public MappedBackend(String filePath) {
+        this(filePath, true);
+    }
+
+    /**
+     * Constructs a memory-mapped backend.
+     *
+     * @param filePath   the path to the snapshot file
+     * @param isParallel true to parse large snapshots with a {@link ParallelTaskLoader},
+     *                   false to always use a single {@link MappedTaskLoader}
+     */
+    public MappedBackend(String filePath, boolean isParallel) {
+        super(filePath, false);
+        this.isParallel = isParallel;
+    }
+
+    @Override
+    protected long loadText(TaskList tasks) throws IOException {
+        if (this.isParallel) {
+            ParallelTaskLoader loader = new ParallelTaskLoader(getFilePath());
+            loader.load(tasks);
+            return loader.getSnapshotSeq();
+        }
+        MappedTaskLoader loader = new MappedTaskLoader(getFilePath());
+        loader.load(tasks);
+        return loader.getSnapshotSeq();
+    }
+}
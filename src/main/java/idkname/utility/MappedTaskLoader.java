@@ -0,0 +1,84 @@
+package idkname.utility;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads the pipe-delimited snapshot file by memory-mapping it and parsing the bytes in place.
+ * <p>
+ * Files larger than one mapping window are mapped window by window, each cut at the last
+ * line break it contains, so arbitrarily large files are supported. Tasks are appended
+ * to the list in batches as they are parsed.
+ */
+public class MappedTaskLoader {
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private final Path path;
+    private long snapshotSeq;
+
+    /**
+     * Constructs a loader for the given snapshot file.
+     *
+     * @param filePath the path to the snapshot file
+     */
+    public MappedTaskLoader(String filePath) {
+        this.path = Path.of(filePath);
+    }
+
+    /**
+     * Returns the journal sequence number recorded in the snapshot read by the last {@link #load(TaskList)}.
+     *
+     * @return the sequence number, or 0 if the file had no header
+     */
+    public long getSnapshotSeq() {
+        return this.snapshotSeq;
+    }
+
+    /**
+     * Appends every valid task in the file to the given list, skipping malformed lines.
+     *
+     * @param tasks the list to load into
+     * @return the number of tasks and bytes read and the time taken
+     * @throws java.nio.file.NoSuchFileException if the file does not exist
+     * @throws IOException if the file cannot be read or holds a line longer than a mapping window
+     */
+    public LoadStats load(TaskList tasks) throws IOException {
+        long startNanos = System.nanoTime();
+        TaskLineParser parser = new TaskLineParser();
+        TaskBatcher batcher = new TaskBatcher(tasks);
+        int count = 0;
+        long size;
+        try (FileChannel ch = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            size = ch.size();
+            long pos = 0;
+            while (pos < size) {
+                long len = Math.min(WINDOW_SIZE, size - pos);
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+                int end = (int) len;
+                if (pos + len < size) {
+                    end = lastLineBreak(buf, end) + 1;
+                    if (end == 0) {
+                        throw new IOException("Line longer than " + WINDOW_SIZE + " bytes at offset " + pos);
+                    }
+                }
+                count += parser.parse(buf, 0, end, batcher);
+                pos += end;
+            }
+        }
+        batcher.flush();
+        this.snapshotSeq = parser.getSnapshotSeq();
+        return new LoadStats(count, size, System.nanoTime() - startNanos);
+    }
+
+    private static int lastLineBreak(MappedByteBuffer buf, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (buf.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,162 @@
+package idkname.utility;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.joestelmach.natty.DateGroup;
+
+/**
+ * Reads natural-language dates such as "next friday 5pm" with natty, for input that is not ISO-8601.
+ * <p>
+ * Natty takes seconds to build its grammar and milliseconds per phrase, so {@link #warmUp()} builds it
+ * on a background thread at startup, and every answer, including "not a date", is kept in a bounded
+ * LRU cache keyed by the normalized phrase and the current day. A phrase repeated on the same day is
+ * therefore never given to natty twice. When natty infers the time, the result is the start of the
+ * day, so it depends on the day alone. Phrases relative to the time of day, such as "in 2 hours",
+ * are not cached.
+ * <p>
+ * Thread-safe. The cache is guarded by the class lock, held only to look a phrase up or store its
+ * answer; natty is guarded by a lock of its own, so a hit never waits for natty, even while the
+ * warm-up is still building its grammar. Natty itself is only called by one thread at a time.
+ */
+public final class NaturalDates {
+    private static final int CACHE_SIZE = 512;
+    private static final Set<String> TIME_RELATIVE_WORDS = Set.of("now", "hour", "hours", "hr", "hrs",
+            "minute", "minutes", "min", "mins", "second", "seconds", "sec", "secs");
+    private static final Object NATTY_LOCK = new Object();
+
+    private static final Map<String, Optional<LocalDateTime>> CACHE =
+            new LinkedHashMap<>(CACHE_SIZE * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Optional<LocalDateTime>> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+    private static com.joestelmach.natty.Parser natty; // built on first use, guarded by NATTY_LOCK
+    private static long misses; // guarded by NATTY_LOCK
+
+    private NaturalDates() {
+    }
+
+    /**
+     * Builds natty's parser on a daemon thread, so the first phrase a user types does not pay for it.
+     * Returns immediately; does nothing if the parser is already built.
+     */
+    public static void warmUp() {
+        Thread warmUp = new Thread(() -> parse("tomorrow 5pm", LocalDate.now()), "idkname-natty-warmup");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    /**
+     * Reads a natural-language date or datetime.
+     *
+     * @param phrase the user input, e.g. "next friday 5pm"
+     * @param today  the current date, which relative phrases are read against; phrases relative to the
+     *               time of day are read against the current time on that date
+     * @return the first datetime the phrase names, or empty if it names none
+     */
+    public static Optional<LocalDateTime> parse(CharSequence phrase, LocalDate today) {
+        String normalized = normalize(phrase);
+        if (normalized.isEmpty()) {
+            return Optional.empty();
+        }
+        String key = normalized + '@' + today;
+        Optional<LocalDateTime> cached = lookUp(key);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<LocalDateTime> parsed = ask(normalized, today.atTime(LocalTime.now()));
+        if (!isTimeRelative(normalized)) {
+            store(key, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Returns how many phrases have been given to natty so far.
+     */
+    static long misses() {
+        synchronized (NATTY_LOCK) {
+            return misses;
+        }
+    }
+
+    private static synchronized Optional<LocalDateTime> lookUp(String key) {
+        return CACHE.get(key);
+    }
+
+    private static synchronized void store(String key, Optional<LocalDateTime> parsed) {
+        CACHE.put(key, parsed);
+    }
+
+    private static Optional<LocalDateTime> ask(String phrase, LocalDateTime reference) {
+        List<DateGroup> groups;
+        synchronized (NATTY_LOCK) {
+            if (natty == null) {
+                natty = new com.joestelmach.natty.Parser();
+            }
+            misses++;
+            try {
+                groups = natty.parse(phrase, Date.from(reference.atZone(ZoneId.systemDefault()).toInstant()));
+            } catch (RuntimeException e) {
+                return Optional.empty(); // natty rejects some input by throwing
+            }
+        }
+        for (DateGroup group : groups) {
+            for (Date date : group.getDates()) {
+                LocalDateTime dateTime = LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+                return Optional.of(group.isTimeInferred() ? dateTime.toLocalDate().atStartOfDay() : dateTime);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Lower-cases the phrase and collapses its whitespace, so equivalent spellings share a cache entry.
+     */
+    private static String normalize(CharSequence phrase) {
+        StringBuilder sb = new StringBuilder(phrase.length());
+        boolean isSpace = true; // drops leading whitespace
+        for (int i = 0; i < phrase.length(); i++) {
+            char c = phrase.charAt(i);
+            if (c <= ' ') {
+                isSpace = true;
+                continue;
+            }
+            if (isSpace && sb.length() > 0) {
+                sb.append(' ');
+            }
+            isSpace = false;
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns whether a normalized phrase contains a word such as "now" or "hours" as a whole token.
+     * Tokens are runs of letters and '-', so "in 2hrs" is time-relative but "snow" or "minutes-free" are not.
+     */
+    private static boolean isTimeRelative(String phrase) {
+        int start = 0;
+        while (start < phrase.length()) {
+            int end = start;
+            while (end < phrase.length() && (Character.isLetter(phrase.charAt(end)) || phrase.charAt(end) == '-')) {
+                end++;
+            }
+            if (end > start && TIME_RELATIVE_WORDS.contains(phrase.substring(start, end))) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+}
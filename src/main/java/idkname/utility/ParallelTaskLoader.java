@@ -0,0 +1,207 @@
+package idkname.utility;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import idkname.task.Task;
+
+/**
+ * Loads the pipe-delimited snapshot file by parsing chunks of it in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * The mapped file is cut into chunks at line boundaries, each chunk is parsed by its own
+ * {@link TaskLineParser}, and the chunk results are appended to the list in file order.
+ * Files smaller than {@link #PARALLEL_THRESHOLD} bytes are parsed sequentially, where
+ * splitting would cost more than it saves.
+ */
+public class ParallelTaskLoader {
+    /** Smallest file, in bytes, that is parsed in parallel. */
+    public static final long PARALLEL_THRESHOLD = 1L << 20;
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private final Path path;
+    private final ForkJoinPool pool;
+    private long snapshotSeq;
+
+    /**
+     * Constructs a loader for the given snapshot file that runs on the common pool.
+     *
+     * @param filePath the path to the snapshot file
+     */
+    public ParallelTaskLoader(String filePath) {
+        this(filePath, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a loader for the given snapshot file that runs on the given pool.
+     *
+     * @param filePath the path to the snapshot file
+     * @param pool     the pool that parses the chunks
+     */
+    public ParallelTaskLoader(String filePath, ForkJoinPool pool) {
+        this.path = Path.of(filePath);
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the journal sequence number recorded in the snapshot read by the last {@link #load(TaskList)}.
+     *
+     * @return the sequence number, or 0 if the file had no header
+     */
+    public long getSnapshotSeq() {
+        return this.snapshotSeq;
+    }
+
+    /**
+     * Appends every valid task in the file to the given list in file order, skipping malformed lines.
+     *
+     * @param tasks the list to load into
+     * @return the number of tasks and bytes read and the time taken
+     * @throws java.nio.file.NoSuchFileException if the file does not exist
+     * @throws IOException if the file cannot be read or holds a line longer than a mapping window
+     */
+    public LoadStats load(TaskList tasks) throws IOException {
+        long startNanos = System.nanoTime();
+        this.snapshotSeq = 0;
+        long size;
+        try (FileChannel ch = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            size = ch.size();
+        }
+        if (size < PARALLEL_THRESHOLD) {
+            MappedTaskLoader sequential = new MappedTaskLoader(this.path.toString());
+            LoadStats stats = sequential.load(tasks);
+            this.snapshotSeq = sequential.getSnapshotSeq();
+            return stats;
+        }
+
+        int count = 0;
+        try (FileChannel ch = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            long pos = 0;
+            while (pos < size) {
+                long len = Math.min(WINDOW_SIZE, size - pos);
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+                int end = (int) len;
+                if (pos + len < size) {
+                    end = lastLineStart(buf, end);
+                    if (end <= 0) {
+                        throw new IOException("Line longer than " + WINDOW_SIZE + " bytes at offset " + pos);
+                    }
+                }
+                count += parseWindow(buf, end, tasks);
+                pos += end;
+            }
+        }
+        return new LoadStats(count, size, System.nanoTime() - startNanos);
+    }
+
+    private int parseWindow(MappedByteBuffer buf, int end, TaskList tasks) {
+        int[] bounds = chunkBounds(buf, end);
+        int chunks = bounds.length - 1;
+        List<List<Task>> results = new ArrayList<>(Collections.nCopies(chunks, null));
+        long[] seqs = new long[chunks];
+        this.pool.invoke(new ParseChunks(buf, bounds, 0, chunks, results, seqs));
+
+        int count = 0;
+        for (int i = 0; i < chunks; i++) {
+            tasks.addAll(results.get(i));
+            count += results.get(i).size();
+            this.snapshotSeq = Math.max(this.snapshotSeq, seqs[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Splits {@code [0, end)} into roughly equal chunks, each starting at the beginning of a line.
+     *
+     * @return chunk boundaries: chunk i is {@code [bounds[i], bounds[i + 1])}
+     */
+    private int[] chunkBounds(MappedByteBuffer buf, int end) {
+        int chunks = (int) Math.max(1, Math.min((long) this.pool.getParallelism() * CHUNKS_PER_THREAD,
+                end / MIN_CHUNK_SIZE));
+        int[] bounds = new int[chunks + 1];
+        int n = 0;
+        for (int i = 1; i < chunks; i++) {
+            int cut = nextLineStart(buf, bounds[n], end, (int) ((long) end * i / chunks));
+            if (cut > bounds[n] && cut < end) {
+                bounds[++n] = cut;
+            }
+        }
+        bounds[++n] = end;
+        return Arrays.copyOf(bounds, n + 1);
+    }
+
+    /**
+     * Returns the offset just past the first line break at or after {@code from},
+     * or -1 if there is none in {@code [min, end)}.
+     */
+    private static int nextLineStart(MappedByteBuffer buf, int min, int end, int from) {
+        for (int i = Math.max(min, from); i < end; i++) {
+            if (buf.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset just past the last line break before {@code end}, or 0 if there is none.
+     */
+    private static int lastLineStart(MappedByteBuffer buf, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (buf.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Parses chunks {@code [lo, hi)} by splitting the range in half until a single chunk is left.
+     */
+    private static class ParseChunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final MappedByteBuffer buf;
+        private final int[] bounds;
+        private final int lo;
+        private final int hi;
+        private final List<List<Task>> results;
+        private final long[] seqs;
+
+        ParseChunks(MappedByteBuffer buf, int[] bounds, int lo, int hi, List<List<Task>> results, long[] seqs) {
+            this.buf = buf;
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+            this.results = results;
+            this.seqs = seqs;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.hi - this.lo > 1) {
+                int mid = (this.lo + this.hi) >>> 1;
+                invokeAll(new ParseChunks(this.buf, this.bounds, this.lo, mid, this.results, this.seqs),
+                        new ParseChunks(this.buf, this.bounds, mid, this.hi, this.results, this.seqs));
+                return;
+            }
+            int from = this.bounds[this.lo];
+            int to = this.bounds[this.lo + 1];
+            List<Task> out = new ArrayList<>(Math.max(16, (to - from) / 40));
+            TaskLineParser parser = new TaskLineParser();
+            parser.parse(this.buf, from, to, out::add);
+            this.results.set(this.lo, out);
+            this.seqs[this.lo] = parser.getSnapshotSeq();
+        }
+    }
+}
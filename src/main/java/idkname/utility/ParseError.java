@@ -0,0 +1,30 @@
+package idkname.utility;
+
+/**
+ * Why a piece of user input could not be parsed, as reported by a {@link ParseResult}.
+ */
+public enum ParseError {
+    MISSING_SEPARATOR("Expected fields separated by '/'"),
+    MISSING_DESCRIPTION("Missing description"),
+    INVALID_DATE("Expected a date as yyyy-MM-dd"),
+    INVALID_DATE_TIME("Expected a datetime as yyyy-MM-ddTHH:mm[:ss]"),
+    REVERSED_PERIOD("Period ends before it starts"),
+    UNKNOWN_TASK_TYPE("Expected deadline or event"),
+    UNTERMINATED_QUOTE("Missing closing '\"'");
+
+    private final String message;
+
+    ParseError(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Describes the error for the given input.
+     *
+     * @param input the input that could not be parsed
+     * @return a message naming the error and the input
+     */
+    public String describe(CharSequence input) {
+        return this.message + ": " + input;
+    }
+}
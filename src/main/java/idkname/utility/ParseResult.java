@@ -0,0 +1,98 @@
+package idkname.utility;
+
+import java.time.DateTimeException;
+
+/**
+ * The outcome of parsing user input: either the parsed value or a {@link ParseError}.
+ * <p>
+ * Lets callers such as {@link Command} or a bulk import report bad input without an exception being
+ * created, filled with a stack trace and caught for every rejected line. Failures carry no value, so
+ * there is one shared instance per error and reporting one allocates nothing.
+ *
+ * @param <T> the type of the parsed value
+ */
+public final class ParseResult<T> {
+    private static final ParseResult<?>[] FAILURES = failures();
+
+    private final T value;
+    private final ParseError error;
+
+    private ParseResult(T value, ParseError error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    private static ParseResult<?>[] failures() {
+        ParseResult<?>[] failures = new ParseResult<?>[ParseError.values().length];
+        for (ParseError error : ParseError.values()) {
+            failures[error.ordinal()] = new ParseResult<>(null, error);
+        }
+        return failures;
+    }
+
+    /**
+     * Returns a successful result.
+     *
+     * @param value the parsed value, not null
+     * @param <T>   the type of the value
+     * @return a result holding the value
+     */
+    public static <T> ParseResult<T> of(T value) {
+        assert value != null : "value must not be null";
+        return new ParseResult<>(value, null);
+    }
+
+    /**
+     * Returns the shared failed result for an error.
+     *
+     * @param error why parsing failed
+     * @param <T>   the type the value would have had
+     * @return a result holding the error
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ParseResult<T> failure(ParseError error) {
+        return (ParseResult<T>) FAILURES[error.ordinal()];
+    }
+
+    /**
+     * Returns whether parsing succeeded.
+     *
+     * @return true if there is a value
+     */
+    public boolean isOk() {
+        return this.error == null;
+    }
+
+    /**
+     * Returns the parsed value.
+     *
+     * @return the value, or null if parsing failed
+     */
+    public T value() {
+        return this.value;
+    }
+
+    /**
+     * Returns why parsing failed.
+     *
+     * @return the error, or null if parsing succeeded
+     */
+    public ParseError error() {
+        return this.error;
+    }
+
+    /**
+     * Returns the parsed value, or throws if parsing failed. For callers that report bad input by
+     * exception, like the methods of {@link Parser} that predate this class.
+     *
+     * @param input the input that was parsed, for the exception message
+     * @return the value
+     * @throws DateTimeException if parsing failed
+     */
+    public T orElseThrow(CharSequence input) {
+        if (this.error != null) {
+            throw new DateTimeException(this.error.describe(input));
+        }
+        return this.value;
+    }
+}
@@ -1,7 +1,14 @@
 package idkname.utility;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import idkname.task.Deadline;
+import idkname.task.Event;
 
 /**
  * Utility class that handles parsing of user input strings into
@@ -18,11 +25,52 @@ public class Parser {
      */
     public static String[] ordinaryParse(String input) {
         assert input != null : "input must not be null";
-        String trimmed = input.trim();
-        if (trimmed.isEmpty()) {
-            return new String[] { "" };
+        CommandLine line = new CommandLine().reset(input);
+        return line.hasArgument()
+                ? new String[] { line.command(), line.argument() }
+                : new String[] { line.command() };
+    }
+
+    /**
+     * Splits a line of user input into the commands of a pipeline, separated by ';'.
+     * <p>
+     * A ';' inside double quotes belongs to the command, and a backslash takes the next character
+     * literally, so {@code todo "a;b"} and {@code todo a\;b} both add a task called {@code a;b}.
+     * The quotes and backslashes themselves are dropped; blank commands are skipped.
+     *
+     * @param input the raw user input
+     * @return the commands in order, or why the quoting is malformed
+     */
+    public static ParseResult<List<String>> pipelineResult(String input) {
+        assert input != null : "input must not be null";
+        List<String> commands = new ArrayList<>();
+        StringBuilder command = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '\\' && i + 1 < input.length()) {
+                command.append(input.charAt(++i));
+            } else if (c == '"') {
+                isQuoted = !isQuoted;
+            } else if (c == ';' && !isQuoted) {
+                addCommand(commands, command);
+            } else {
+                command.append(c);
+            }
+        }
+        if (isQuoted) {
+            return ParseResult.failure(ParseError.UNTERMINATED_QUOTE);
         }
-        return trimmed.split("\\s+", 2);
+        addCommand(commands, command);
+        return ParseResult.of(commands);
+    }
+
+    private static void addCommand(List<String> commands, StringBuilder command) {
+        String trimmed = command.toString().trim();
+        if (!trimmed.isEmpty()) {
+            commands.add(trimmed);
+        }
+        command.setLength(0);
     }
 
     /**
@@ -42,6 +90,94 @@ public class Parser {
         return n - 1;
     }
 
+    /**
+     * Converts a selection of 1-based task numbers, such as {@code 3}, {@code 1-500} or
+     * {@code 3,7,9-20}, into zero-based task indices.
+     * <p>
+     * Scans the selection once, in place: numbers are read straight from the string and indices are
+     * written into the result array, which is only sorted if the selection was not in increasing order.
+     *
+     * @param selection the task numbers and ranges, comma-separated
+     * @param size      the number of tasks in the list
+     * @return the distinct zero-based indices, in increasing order
+     * @throws NumberFormatException if a number is not a valid integer or a range is reversed
+     * @throws IndexOutOfBoundsException if a number is greater than {@code size}
+     */
+    public static int[] taskNumbersParse(String selection, int size) {
+        assert selection != null : "selection must not be null";
+        int end = selection.length();
+        while (end > 0 && selection.charAt(end - 1) == ',') {
+            end--; // trailing commas are ignored, as String#split would
+        }
+        int[] indices = new int[8];
+        int count = 0;
+        boolean isIncreasing = true;
+        int partStart = 0;
+        do {
+            int partEnd = partStart;
+            while (partEnd < end && selection.charAt(partEnd) != ',') {
+                partEnd++;
+            }
+            int lo = partStart;
+            int hi = partEnd;
+            while (lo < hi && selection.charAt(lo) <= ' ') {
+                lo++;
+            }
+            while (hi > lo && selection.charAt(hi - 1) <= ' ') {
+                hi--;
+            }
+            int dash = lo + 1; // a leading '-' is a sign, rejected by taskIndex
+            while (dash < hi && selection.charAt(dash) != '-') {
+                dash++;
+            }
+            int from = taskIndex(selection, lo, Math.min(dash, hi));
+            int to = dash < hi ? taskIndex(selection, dash + 1, hi) : from;
+            if (to < from) {
+                throw new NumberFormatException("Range must not be reversed: " + selection.substring(lo, hi));
+            }
+            if (to >= size) {
+                throw new IndexOutOfBoundsException("Task " + (to + 1) + " does not exist");
+            }
+            if (count + (to - from + 1) > indices.length) {
+                indices = Arrays.copyOf(indices, Math.max(indices.length * 2, count + (to - from + 1)));
+            }
+            isIncreasing &= count == 0 || from > indices[count - 1];
+            for (int index = from; index <= to; index++) {
+                indices[count++] = index;
+            }
+            partStart = partEnd + 1;
+        } while (partStart <= end);
+        if (!isIncreasing) {
+            Arrays.sort(indices, 0, count);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct == 0 || indices[i] != indices[distinct - 1]) {
+                    indices[distinct++] = indices[i];
+                }
+            }
+            count = distinct;
+        }
+        return count == indices.length ? indices : Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * Converts the 1-based task number in {@code s[start, end)}, ignoring surrounding whitespace,
+     * into a zero-based index without copying it out.
+     */
+    private static int taskIndex(CharSequence s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int n = Integer.parseInt(s, start, end, 10);
+        if (n <= 0) {
+            throw new NumberFormatException("Task id must be >= 1");
+        }
+        return n - 1;
+    }
+
     /**
      * Parses a deadline description of the form
      * "description /by yyyy-mm-dd".
@@ -52,18 +188,13 @@ public class Parser {
      */
     public static String[] deadlineParse(String description) {
         assert description != null : "description must not be null";
-        String s = description.trim();
-        if (s.isEmpty()) {
-            return null;
-        }
-
-        String[] parts = s.split("\\s*/\\s*", 2);
-        if (parts.length != 2) {
+        int slash = description.indexOf('/');
+        if (slash < 0) {
             return null;
         }
 
-        String desc = parts[0].trim();
-        String by = parts[1].trim();
+        String desc = description.substring(0, slash).trim();
+        String by = description.substring(slash + 1).trim();
         if (desc.isEmpty() || by.isEmpty()) {
             return null;
         }
@@ -82,34 +213,263 @@ public class Parser {
      */
     public static String[] eventParse(String description) {
         assert description != null : "description must not be null";
-        String s = description.trim();
-        if (s.isEmpty()) {
+        int first = description.indexOf('/');
+        int second = first < 0 ? -1 : description.indexOf('/', first + 1);
+        if (second < 0) {
             return null;
         }
-        String[] left = s.split("\\s*/\\s*", 2);
+        String desc = description.substring(0, first).trim();
+        String start = description.substring(first + 1, second).trim();
+        String end = description.substring(second + 1).trim();
 
-        if (left.length != 2) {
+        if (desc.isEmpty() || start.isEmpty() || end.isEmpty()) {
             return null;
         }
-        String desc = left[0].trim();
-        String[] right = left[1].split("\\s*/\\s*", 2);
-
-        if (right.length != 2) {
+        if (!localDateTimeResult(start).isOk() || !localDateTimeResult(end).isOk()) {
             return null;
         }
-        String start = right[0].trim();
-        String end = right[1].trim();
+        return new String[] { desc, start, end };
+    }
+
+    /**
+     * Parses a deadline of the form "description / yyyy-mm-dd" straight into a task.
+     * Unlike {@link #deadlineParse}, builds no intermediate array and parses the date once.
+     *
+     * @param description the user input string
+     * @return the deadline, or why the input is not one
+     */
+    public static ParseResult<Deadline> deadlineResult(String description) {
+        assert description != null : "description must not be null";
+        int slash = description.indexOf('/');
+        if (slash < 0) {
+            return ParseResult.failure(ParseError.MISSING_SEPARATOR);
+        }
+        String desc = description.substring(0, slash).trim();
+        if (desc.isEmpty()) {
+            return ParseResult.failure(ParseError.MISSING_DESCRIPTION);
+        }
+        ParseResult<LocalDate> by = dateResult(description, slash + 1, description.length());
+        return by.isOk() ? ParseResult.of(new Deadline(desc, by.value())) : ParseResult.failure(by.error());
+    }
 
-        if (desc.isEmpty() || start.isEmpty() || end.isEmpty()) {
-            return null;
+    /**
+     * Parses an event of the form "description / yyyy-mm-ddTHH:mm / yyyy-mm-ddTHH:mm" straight into
+     * a task. Unlike {@link #eventParse}, builds no intermediate array and parses each datetime once.
+     * An event may not end before it starts.
+     *
+     * @param description the user input string
+     * @return the event, or why the input is not one
+     */
+    public static ParseResult<Event> eventResult(String description) {
+        assert description != null : "description must not be null";
+        int first = description.indexOf('/');
+        int second = first < 0 ? -1 : description.indexOf('/', first + 1);
+        if (second < 0) {
+            return ParseResult.failure(ParseError.MISSING_SEPARATOR);
+        }
+        String desc = description.substring(0, first).trim();
+        if (desc.isEmpty()) {
+            return ParseResult.failure(ParseError.MISSING_DESCRIPTION);
+        }
+        ParseResult<LocalDateTime> start = dateTimeResult(description, first + 1, second);
+        ParseResult<LocalDateTime> end = start.isOk()
+                ? dateTimeResult(description, second + 1, description.length())
+                : start;
+        if (!end.isOk()) {
+            return ParseResult.failure(end.error());
+        }
+        if (end.value().isBefore(start.value())) {
+            return ParseResult.failure(ParseError.REVERSED_PERIOD);
+        }
+        return ParseResult.of(new Event(desc, start.value(), end.value()));
+    }
+
+    /**
+     * Parses a deadline of the form "description / yyyy-mm-dd" straight into a task.
+     *
+     * @param description the user input string
+     * @return the deadline
+     * @throws DateTimeException if the description or date is missing, or the date is invalid
+     */
+    public static Deadline deadlineTaskParse(String description) {
+        return deadlineResult(description).orElseThrow(description);
+    }
+
+    /**
+     * Parses an event of the form "description / yyyy-mm-ddTHH:mm / yyyy-mm-ddTHH:mm" straight into
+     * a task.
+     *
+     * @param description the user input string
+     * @return the event
+     * @throws DateTimeException if the description or either datetime is missing or invalid, or the event
+     *                           ends before it starts
+     */
+    public static Event eventTaskParse(String description) {
+        return eventResult(description).orElseThrow(description);
+    }
+
+    /**
+     * Parses a date in ISO-8601 format (yyyy-MM-dd) from a region of the input, ignoring surrounding
+     * whitespace. The usual fixed-width form is decoded by hand by {@link IsoDates}; only input that
+     * could still be a valid ISO date, such as a signed year, falls back to {@link LocalDate#parse}.
+     *
+     * @param s     the user input
+     * @param start the index of the first character of the region
+     * @param end   the index just past the region
+     * @return the date, or {@link ParseError#INVALID_DATE}
+     */
+    public static ParseResult<LocalDate> localDateResult(CharSequence s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        LocalDate date = IsoDates.parseDate(s, start, end - start);
+        if (date != null) {
+            return ParseResult.of(date);
+        }
+        if (start == end || (s.charAt(start) != '+' && s.charAt(start) != '-')) {
+            return ParseResult.failure(ParseError.INVALID_DATE);
         }
         try {
-            LocalDateTime.parse(start);
-            LocalDateTime.parse(end);
-        } catch (Exception e) {
-            return null;
+            return ParseResult.of(LocalDate.parse(s.subSequence(start, end)));
+        } catch (DateTimeException e) {
+            return ParseResult.failure(ParseError.INVALID_DATE);
         }
-        return new String[] { desc, start, end };
+    }
+
+    /**
+     * Parses a date in ISO-8601 format (yyyy-MM-dd), ignoring surrounding whitespace.
+     *
+     * @param date the date string to parse
+     * @return the date, or {@link ParseError#INVALID_DATE}
+     */
+    public static ParseResult<LocalDate> localDateResult(String date) {
+        return localDateResult(date, 0, date.length());
+    }
+
+    /**
+     * Parses a datetime in ISO-8601 format (yyyy-MM-ddTHH:mm[:ss]) from a region of the input,
+     * ignoring surrounding whitespace. The fixed-width forms are decoded by hand by {@link IsoDates};
+     * only input that could still be a valid ISO datetime, such as one with fractional seconds or a
+     * signed year, falls back to {@link LocalDateTime#parse}.
+     *
+     * @param s     the user input
+     * @param start the index of the first character of the region
+     * @param end   the index just past the region
+     * @return the datetime, or {@link ParseError#INVALID_DATE_TIME}
+     */
+    public static ParseResult<LocalDateTime> localDateTimeResult(CharSequence s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        LocalDateTime dateTime = IsoDates.parseDateTime(s, start, end - start);
+        if (dateTime != null) {
+            return ParseResult.of(dateTime);
+        }
+        boolean isSigned = start < end && (s.charAt(start) == '+' || s.charAt(start) == '-');
+        boolean isFractional = end - start > 20 && s.charAt(start + 19) == '.';
+        if (!isSigned && !isFractional) {
+            return ParseResult.failure(ParseError.INVALID_DATE_TIME);
+        }
+        try {
+            return ParseResult.of(LocalDateTime.parse(s.subSequence(start, end)));
+        } catch (DateTimeException e) {
+            return ParseResult.failure(ParseError.INVALID_DATE_TIME);
+        }
+    }
+
+    /**
+     * Parses a datetime in ISO-8601 format (yyyy-MM-ddTHH:mm[:ss]), ignoring surrounding whitespace.
+     *
+     * @param date the datetime string to parse
+     * @return the datetime, or {@link ParseError#INVALID_DATE_TIME}
+     */
+    public static ParseResult<LocalDateTime> localDateTimeResult(String date) {
+        return localDateTimeResult(date, 0, date.length());
+    }
+
+    /**
+     * Parses a date typed by the user: ISO-8601 (yyyy-MM-dd) through {@link #localDateResult}, or
+     * otherwise a natural-language phrase such as "next friday" through {@link NaturalDates}. Input that
+     * starts like an ISO date but is not a valid one is rejected rather than read as a phrase.
+     *
+     * @param s     the user input
+     * @param start the index of the first character of the region
+     * @param end   the index just past the region
+     * @return the date, or {@link ParseError#INVALID_DATE}
+     */
+    public static ParseResult<LocalDate> dateResult(CharSequence s, int start, int end) {
+        ParseResult<LocalDate> iso = localDateResult(s, start, end);
+        if (iso.isOk() || isIsoShaped(s, start, end)) {
+            return iso;
+        }
+        return NaturalDates.parse(s.subSequence(start, end), LocalDate.now())
+                .map(dateTime -> ParseResult.of(dateTime.toLocalDate()))
+                .orElse(iso);
+    }
+
+    /**
+     * Parses a date typed by the user, in ISO-8601 or natural language.
+     *
+     * @param date the user input
+     * @return the date, or {@link ParseError#INVALID_DATE}
+     */
+    public static ParseResult<LocalDate> dateResult(String date) {
+        return dateResult(date, 0, date.length());
+    }
+
+    /**
+     * Parses a datetime typed by the user: ISO-8601 (yyyy-MM-ddTHH:mm[:ss]) through
+     * {@link #localDateTimeResult}, or otherwise a natural-language phrase such as "next friday 5pm"
+     * through {@link NaturalDates}. A phrase without a time means the start of its day. Input that starts
+     * like an ISO date but is not a valid datetime is rejected rather than read as a phrase.
+     *
+     * @param s     the user input
+     * @param start the index of the first character of the region
+     * @param end   the index just past the region
+     * @return the datetime, or {@link ParseError#INVALID_DATE_TIME}
+     */
+    public static ParseResult<LocalDateTime> dateTimeResult(CharSequence s, int start, int end) {
+        ParseResult<LocalDateTime> iso = localDateTimeResult(s, start, end);
+        if (iso.isOk() || isIsoShaped(s, start, end)) {
+            return iso;
+        }
+        return NaturalDates.parse(s.subSequence(start, end), LocalDate.now())
+                .map(ParseResult::of)
+                .orElse(iso);
+    }
+
+    /**
+     * Parses a datetime typed by the user, in ISO-8601 or natural language.
+     *
+     * @param date the user input
+     * @return the datetime, or {@link ParseError#INVALID_DATE_TIME}
+     */
+    public static ParseResult<LocalDateTime> dateTimeResult(String date) {
+        return dateTimeResult(date, 0, date.length());
+    }
+
+    /**
+     * Returns whether the region, less leading whitespace, starts with four digits and a dash.
+     */
+    private static boolean isIsoShaped(CharSequence s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') {
+            start++;
+        }
+        if (end - start < 5 || s.charAt(start + 4) != '-') {
+            return false;
+        }
+        for (int i = start; i < start + 4; i++) {
+            if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -117,12 +477,11 @@ public class Parser {
      *
      * @param date the date string to parse
      * @return the corresponding LocalDate
-     * @throws java.time.format.DateTimeParseException if the string is not in the correct format
+     * @throws DateTimeException if the string is not in the correct format
      */
     public static LocalDate localDateParse(String date) {
         assert date != null : "date string must not be null";
-        String s = date.trim();
-        return LocalDate.parse(s);
+        return localDateResult(date).orElseThrow(date);
     }
 
     /**
@@ -130,11 +489,44 @@ public class Parser {
      *
      * @param date the datetime string to parse
      * @return the corresponding LocalDateTime
-     * @throws java.time.format.DateTimeParseException if the string is not in the correct format
+     * @throws DateTimeException if the string is not in the correct format
      */
     public static LocalDateTime localDateTimeParse(String date) {
         assert date != null : "date string must not be null";
-        String s = date.trim();
-        return LocalDateTime.parse(s);
+        return localDateTimeResult(date).orElseThrow(date);
+    }
+
+    /**
+     * Parses a period of the form "yyyy-MM-ddTHH:mm[:ss]/yyyy-MM-ddTHH:mm[:ss]", parsing each datetime once.
+     *
+     * @param period the user input string
+     * @return an array of length 2: [start, end], or why the input is not a period
+     */
+    public static ParseResult<LocalDateTime[]> periodResult(String period) {
+        assert period != null : "period must not be null";
+        int slash = period.indexOf('/');
+        if (slash < 0) {
+            return ParseResult.failure(ParseError.MISSING_SEPARATOR);
+        }
+        ParseResult<LocalDateTime> from = dateTimeResult(period, 0, slash);
+        ParseResult<LocalDateTime> to = from.isOk() ? dateTimeResult(period, slash + 1, period.length()) : from;
+        if (!to.isOk()) {
+            return ParseResult.failure(to.error());
+        }
+        if (to.value().isBefore(from.value())) {
+            return ParseResult.failure(ParseError.REVERSED_PERIOD);
+        }
+        return ParseResult.of(new LocalDateTime[] { from.value(), to.value() });
+    }
+
+    /**
+     * Parses a period of the form "yyyy-MM-ddTHH:mm[:ss]/yyyy-MM-ddTHH:mm[:ss]".
+     *
+     * @param period the user input string
+     * @return an array of length 2: [start, end]
+     * @throws DateTimeException if either datetime is invalid or the period ends before it starts
+     */
+    public static LocalDateTime[] periodParse(String period) {
+        return periodResult(period).orElseThrow(period);
     }
 }
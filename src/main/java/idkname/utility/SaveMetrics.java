@@ -0,0 +1,58 @@
+package idkname.utility;
+
+/**
+ * Accumulates timings of snapshot saves so the cost of each {@link Durability} mode can be compared.
+ */
+public class SaveMetrics {
+    private long requests;
+    private long commits;
+    private long forcedCommits;
+    private long writeNanos;
+    private long forceNanos;
+    private long renameNanos;
+
+    /**
+     * Records that a save was requested; several requests may share one commit.
+     */
+    synchronized void recordRequest() {
+        this.requests++;
+    }
+
+    /**
+     * Records one snapshot commit.
+     *
+     * @param write  nanoseconds spent writing the temporary file
+     * @param force  nanoseconds spent forcing it to disk, 0 if not forced
+     * @param rename nanoseconds spent moving it over the old snapshot
+     * @param isForced whether the commit was forced to disk
+     */
+    synchronized void recordCommit(long write, long force, long rename, boolean isForced) {
+        this.commits++;
+        this.forcedCommits += isForced ? 1 : 0;
+        this.writeNanos += write;
+        this.forceNanos += force;
+        this.renameNanos += rename;
+    }
+
+    public synchronized long getRequests() {
+        return this.requests;
+    }
+
+    public synchronized long getCommits() {
+        return this.commits;
+    }
+
+    /**
+     * Returns a one-line summary of the average cost per commit.
+     *
+     * @return the summary
+     */
+    @Override
+    public synchronized String toString() {
+        long n = Math.max(1, this.commits);
+        return String.format("%d requests in %d commits (%d forced); per commit: write %.2f ms,"
+                        + " force %.2f ms, rename %.2f ms",
+                this.requests, this.commits, this.forcedCommits,
+                this.writeNanos / 1e6 / n, this.forceNanos / 1e6 / n, this.renameNanos / 1e6 / n);
+    }
+}
@@ -0,0 +1,104 @@
+package idkname.utility;
+
+import java.util.Arrays;
+
+/**
+ * Counts the live slots of a tombstoned list, so positions and slots convert in O(log n).
+ * <p>
+ * A Fenwick tree over one bit per slot: 1 while the slot holds a task, 0 once it is a tombstone.
+ * Starts with every slot live, as after a compaction. Not thread-safe; {@link TaskList} only
+ * uses it under its lock.
+ */
+class SlotRanks {
+    private int[] tree;
+    private int size;
+
+    /**
+     * Creates the ranks of a list whose slots all hold a task.
+     *
+     * @param size the number of slots
+     */
+    SlotRanks(int size) {
+        this.tree = new int[Math.max(16, size + 1)];
+        this.size = size;
+        for (int i = 1; i <= size; i++) {
+            this.tree[i] = Integer.lowestOneBit(i); // every node covers lowbit(i) live slots
+        }
+    }
+
+    /**
+     * Adds a live slot at the end.
+     */
+    void append() {
+        int i = ++this.size;
+        if (i == this.tree.length) {
+            this.tree = Arrays.copyOf(this.tree, i * 2);
+        }
+        int sum = 1;
+        for (int j = i - 1; j > i - Integer.lowestOneBit(i); j -= Integer.lowestOneBit(j)) {
+            sum += this.tree[j];
+        }
+        this.tree[i] = sum;
+    }
+
+    /**
+     * Removes the last slot, e.g. to undo {@link #append()}.
+     */
+    void removeLast() {
+        this.size--; // the next append recomputes its node
+    }
+
+    /**
+     * Turns a live slot into a tombstone.
+     *
+     * @param slot the zero-based slot
+     */
+    void clear(int slot) {
+        for (int i = slot + 1; i <= this.size; i += Integer.lowestOneBit(i)) {
+            this.tree[i]--;
+        }
+    }
+
+    /**
+     * Turns a tombstone back into a live slot, e.g. to undo {@link #clear(int)}.
+     *
+     * @param slot the zero-based slot
+     */
+    void restore(int slot) {
+        for (int i = slot + 1; i <= this.size; i += Integer.lowestOneBit(i)) {
+            this.tree[i]++;
+        }
+    }
+
+    /**
+     * Returns the number of live slots before the given one, i.e. its position in the list.
+     *
+     * @param slot the zero-based slot
+     * @return the number of live slots in {@code [0, slot)}
+     */
+    int rank(int slot) {
+        int count = 0;
+        for (int i = slot; i > 0; i -= Integer.lowestOneBit(i)) {
+            count += this.tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the slot holding the task at the given position.
+     *
+     * @param position the zero-based position among live slots
+     * @return the zero-based slot
+     */
+    int select(int position) {
+        int slot = 0;
+        int remaining = position + 1;
+        for (int step = Integer.highestOneBit(Math.max(1, this.size)); step > 0; step >>= 1) {
+            if (slot + step <= this.size && this.tree[slot + step] < remaining) {
+                slot += step;
+                remaining -= this.tree[slot];
+            }
+        }
+        return slot;
+    }
+}
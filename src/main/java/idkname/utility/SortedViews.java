@@ -0,0 +1,127 @@
+package idkname.utility;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import idkname.task.Task;
+
+/**
+ * Keeps the tasks of each type in the order {@link Task#compareTo} sorts them: todos in list order,
+ * deadlines by due date and events by start, ties broken by list order.
+ * <p>
+ * Entries are keyed by the stable ids of {@link TaskList}, which increase in list order, and by dates
+ * that never change once a task is created. Adding or deleting a task is therefore one map update,
+ * and a sorted listing is a walk over the views it needs instead of a sort of the whole list.
+ * Not thread-safe; {@link TaskList} only uses it under its lock.
+ */
+class SortedViews {
+    private final Map<Integer, Task> todos = new LinkedHashMap<>();
+    private final TreeMap<Key<?>, Task> deadlines = new TreeMap<>();
+    private final TreeMap<Key<?>, Task> events = new TreeMap<>();
+
+    /**
+     * Adds a task to the view of its type.
+     *
+     * @param id the stable id of the task
+     * @param t  the task
+     */
+    void add(int id, Task t) {
+        switch (t.getTaskType()) {
+        case "T" -> this.todos.put(id, t);
+        case "D" -> this.deadlines.put(new Key<>(t.getDueDate(), id), t);
+        case "E" -> this.events.put(new Key<>(t.getTimePeriod()[0], id), t);
+        default -> throw new IllegalArgumentException("Unknown task type: " + t.getTaskType());
+        }
+    }
+
+    /**
+     * Removes a task added with the same id.
+     *
+     * @param id the stable id of the task
+     * @param t  the task
+     */
+    void remove(int id, Task t) {
+        switch (t.getTaskType()) {
+        case "T" -> this.todos.remove(id);
+        case "D" -> this.deadlines.remove(new Key<>(t.getDueDate(), id));
+        case "E" -> this.events.remove(new Key<>(t.getTimePeriod()[0], id));
+        default -> throw new IllegalArgumentException("Unknown task type: " + t.getTaskType());
+        }
+    }
+
+    /**
+     * Returns the tasks of one type in sorted order. The collection is a live, read-only view.
+     *
+     * @param taskType "T", "D" or "E"
+     * @return the sorted tasks of that type, or an empty collection for any other type
+     */
+    Collection<Task> view(String taskType) {
+        switch (taskType) {
+        case "T":
+            return Collections.unmodifiableCollection(this.todos.values());
+        case "D":
+            return Collections.unmodifiableCollection(this.deadlines.values());
+        case "E":
+            return Collections.unmodifiableCollection(this.events.values());
+        default:
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Returns the deadlines due on or after a date, or the events starting at or after a time, in
+     * sorted order. The collection is a live, read-only view.
+     *
+     * @param taskType "D" or "E"
+     * @param from     the inclusive lower bound: a {@code LocalDate} for deadlines, a {@code LocalDateTime}
+     *                 for events
+     * @return the sorted tasks of that type from the bound on, or an empty collection for any other type
+     */
+    <C extends Comparable<? super C>> Collection<Task> viewFrom(String taskType, C from) {
+        TreeMap<Key<?>, Task> view;
+        switch (taskType) {
+        case "D":
+            view = this.deadlines;
+            break;
+        case "E":
+            view = this.events;
+            break;
+        default:
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableCollection(view.tailMap(new Key<>(from, Integer.MIN_VALUE)).values());
+    }
+
+    /**
+     * Returns the number of tasks in all views.
+     *
+     * @return the number of tasks
+     */
+    int size() {
+        return this.todos.size() + this.deadlines.size() + this.events.size();
+    }
+
+    /**
+     * A date paired with the id of its task, so tasks with equal dates keep their list order.
+     */
+    private static final class Key<C extends Comparable<? super C>> implements Comparable<Key<?>> {
+        private final C date;
+        private final int id;
+
+        Key(C date, int id) {
+            this.date = date;
+            this.id = id;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public int compareTo(Key<?> other) {
+            // a view only ever holds keys of one date type
+            int byDate = this.date.compareTo(((Key<C>) other).date);
+            return byDate != 0 ? byDate : Integer.compare(this.id, other.id);
+        }
+    }
+}
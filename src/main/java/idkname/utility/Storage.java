@@ -1,12 +1,10 @@
 package idkname.utility;
 
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Scanner;
+import java.util.List;
 
 import idkname.task.Deadline;
 import idkname.task.Event;
@@ -19,27 +17,95 @@ import idkname.task.Todo;
  * <p>
  * Tasks are stored in plain text format, with fields separated by "|".
  * Supported task types: Todo (T), Deadline (D), Event (E).
+ * <p>
+ * The stored state is a periodic snapshot; mutations made in between are appended to a
+ * {@link Journal} and replayed on top of the snapshot when loading. Where the snapshot and
+ * journal live, and in which format, is decided by a {@link StorageBackend}; the default is
+ * a {@link TextBackend}.
+ * <p>
+ * Saves requested while another save is running are batched into a single group commit,
+ * and {@link Durability} decides which commits are forced to disk.
+ * <p>
+ * Once the list has been loaded or saved, a {@link ChangeTracker} follows its mutations. A save
+ * with no changes since the last snapshot writes nothing, and a backend that supports it only
+ * rewrites the segments of the snapshot that changed.
  */
 public class Storage {
+    private static final int COMPACT_THRESHOLD = 1000;
+
     private final TaskList tasks;
-    private final String filePath;
+    private final StorageBackend backend;
+    private final Journal journal;
+    private final Durability durability;
+    private final SaveMetrics metrics = new SaveMetrics();
+    private final ChangeTracker tracker = new ChangeTracker();
+    private final Object ticketLock = new Object();
+    private long requestedTicket;
+    private long committedTicket;
+    private boolean hasUnforcedCommit;
+    private boolean isTracking;
 
     /**
-     * Constructs a Storage object responsible for persisting a given task list.
+     * Constructs a Storage object responsible for persisting a given task list
+     * in the text format.
      *
      * @param tasks    the task list to read from or write to
      * @param filePath the path to the storage file
      */
     public Storage(TaskList tasks, String filePath) {
+        this(tasks, new TextBackend(filePath));
+    }
+
+    /**
+     * Constructs a Storage object that keeps the task list in the given backend,
+     * forcing every commit to disk.
+     *
+     * @param tasks   the task list to read from or write to
+     * @param backend where the snapshot and journal are kept
+     */
+    public Storage(TaskList tasks, StorageBackend backend) {
+        this(tasks, backend, Durability.PER_BATCH);
+    }
+
+    /**
+     * Constructs a Storage object that keeps the task list in the given backend and durability mode.
+     *
+     * @param tasks      the task list to read from or write to
+     * @param backend    where the snapshot and journal are kept
+     * @param durability which snapshot commits are forced to disk
+     */
+    public Storage(TaskList tasks, StorageBackend backend, Durability durability) {
         this.tasks = tasks;
-        this.filePath = filePath;
+        this.backend = backend;
+        this.journal = new Journal(backend);
+        this.durability = durability;
+    }
+
+    /**
+     * Returns the backend the snapshot and journal are kept in.
+     *
+     * @return the storage backend
+     */
+    public StorageBackend getBackend() {
+        return this.backend;
     }
 
     /**
-     * Saves the current tasks to the storage file.
-     * Creates parent directories if they do not exist.
+     * Returns the timings of the snapshot commits made so far.
+     *
+     * @return the save metrics of this storage
+     */
+    public SaveMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Saves the current tasks to the backend and truncates the journal.
+     * Safe to call from any thread: the latest immutable version of the list is taken under the list's
+     * lock, together with the changes since the last save, and written after the lock is released.
      * <p>
-     * Tasks are serialized in the following formats:
+     * In the text format, the first line records the last journal sequence number contained in the snapshot:
+     * {@code J | seq}. Tasks are serialized in the following formats:
      * <ul>
      *   <li>Todo: {@code T | doneFlag | description}</li>
      *   <li>Deadline: {@code D | doneFlag | description | yyyy-MM-dd}</li>
@@ -49,71 +115,237 @@ public class Storage {
      * @throws IOException if an error occurs during writing
      */
     public void save() throws IOException {
-        File f = new File(this.filePath);
-        System.out.println("save at: " + this.filePath);
-        File parent = f.getParentFile();
-        if (parent != null && !parent.exists()) {
-            parent.mkdirs();
-        }
-        try (FileWriter fw = new FileWriter(f)) {
-            for (Task t : this.tasks.getTasks()) {
-                String taskType = t.getTaskType();
-                int taskDone = t.isDone() ? 1 : 0;
-                String taskDescription = t.getDescription();
-                String textToAdd = String.format("%s | %d | %s", taskType, taskDone, taskDescription);
-                switch (taskType) {
-                case "D":
-                    LocalDate dueDate = t.getDueDate();
-                    textToAdd = textToAdd + " | " + dueDate;
-                    break;
-                case "E":
-                    LocalDateTime[] timePeriod = t.getTimePeriod();
-                    textToAdd = textToAdd + " | " + timePeriod[0] + " | " + timePeriod[1];
-                    break;
-                default:
-                    break;
+        save(false);
+    }
+
+    /**
+     * Saves like {@link #save()}. If another save is already running, this call waits for it
+     * and then commits once on behalf of every caller that arrived in the meantime.
+     *
+     * @param isExit true for the final save before the application exits,
+     *               which is forced to disk in {@link Durability#ON_EXIT} mode
+     * @throws IOException if an error occurs during writing
+     */
+    public void save(boolean isExit) throws IOException {
+        long ticket;
+        synchronized (this.ticketLock) {
+            ticket = ++this.requestedTicket;
+        }
+        this.metrics.recordRequest();
+        synchronized (this) {
+            if (this.committedTicket >= ticket) {
+                if (isExit) {
+                    sync(); // a group commit already covered this request
                 }
-                fw.write(textToAdd);
-                fw.write(System.lineSeparator());
+                return;
+            }
+            long batchEnd;
+            synchronized (this.ticketLock) {
+                batchEnd = this.requestedTicket; // every request so far sees its changes in this snapshot
+            }
+            commit(isExit);
+            this.committedTicket = batchEnd;
+        }
+    }
+
+    private void commit(boolean isExit) throws IOException {
+        List<Task> snapshot;
+        ChangeSet changes;
+        FileBackend patchable = this.backend instanceof FileBackend fileBackend ? fileBackend : null;
+        boolean isDelta;
+        long seq;
+        synchronized (this.tasks) {
+            if (this.tracker.isClean() && !this.backend.isOutdated() && !this.journal.isBroken()) {
+                snapshot = null; // nothing changed since the last snapshot, and the journal holds every change
+                changes = null;
+                isDelta = false;
+                seq = 0;
+            } else {
+                changes = this.tracker.drain();
+                startTracking();
+                int size = this.tasks.size();
+                isDelta = patchable != null && patchable.canSaveDelta(changes, size);
+                snapshot = isDelta ? changes.copyChanged(this.tasks.getTasks()) : this.tasks.view().getTasks();
+                seq = this.journal.getLastSeq();
+            }
+        }
+        if (snapshot == null) {
+            if (isExit) {
+                sync();
+            }
+            return;
+        }
+        boolean isForced = this.durability == Durability.PER_BATCH
+                || (isExit && this.durability == Durability.ON_EXIT);
+        try {
+            if (isDelta) {
+                patchable.saveDelta(snapshot, seq, changes, isForced, this.metrics);
+            } else {
+                this.backend.save(snapshot, seq, isForced, this.metrics);
+            }
+        } catch (IOException | RuntimeException e) {
+            synchronized (this.tasks) {
+                this.tracker.invalidate(); // the stored snapshot is unknown now
             }
+            throw e;
+        }
+        this.hasUnforcedCommit = !isForced;
+        this.journal.checkpoint(seq);
+    }
+
+    /**
+     * Starts following the list's mutations from its current state. Must hold the list's lock.
+     */
+    private void startTracking() {
+        if (!this.isTracking) {
+            this.tasks.addListener(this.tracker);
+            this.isTracking = true;
         }
-        System.out.println("Saving to: " + new File(this.filePath).getAbsolutePath());
+        this.tracker.reset(this.tasks.size());
     }
 
     /**
-     * Loads tasks from the storage file into the associated task list.
-     * Ignores invalid or malformed lines.
+     * Forces the current snapshot to disk if the last commit was not forced.
+     *
+     * @throws IOException if the snapshot cannot be forced
+     */
+    public synchronized void sync() throws IOException {
+        if (!this.hasUnforcedCommit || this.durability == Durability.NONE) {
+            return;
+        }
+        this.backend.sync();
+        this.hasUnforcedCommit = false;
+    }
+
+    /**
+     * Loads tasks from the backend into the associated task list, replays the
+     * journal on top of it, and then starts journaling further mutations of the list.
+     * Invalid or malformed snapshot lines are ignored.
      * <p>
      * Expected line formats are the same as in {@link #save()}.
      *
-     * @throws FileNotFoundException if the storage file does not exist
-     */
-    public void load() throws FileNotFoundException {
-        File f = new File(this.filePath);
-        try (Scanner s = new Scanner(f)) {
-            while (s.hasNextLine()) {
-                String line = s.nextLine().trim();
-                if (line.isEmpty()) {
-                    continue;
-                }
+     * @return the throughput of the snapshot read
+     * @throws FileNotFoundException if no snapshot has been stored yet
+     * @throws IOException if the snapshot cannot be read
+     */
+    public LoadStats load() throws IOException {
+        long start = System.nanoTime();
+        int before = this.tasks.size();
+        long seq;
+        try {
+            seq = this.backend.load(this.tasks);
+        } catch (FileNotFoundException e) {
+            replayJournal(0); // the journal may still hold tasks added before the first snapshot
+            throw e;
+        }
+        LoadStats stats = new LoadStats(this.tasks.size() - before, this.backend.getSize(),
+                System.nanoTime() - start);
+        synchronized (this.tasks) {
+            startTracking(); // replayed records are changes relative to the snapshot
+        }
+        replayJournal(seq);
+        return stats;
+    }
 
-                String[] parts = line.split("\\s*\\|\\s*", 5);
-                if (parts.length < 3) {
-                    continue;
-                }
-                String taskDone = parts[1].trim(); // "0" or "1"
-                Task t = createTask(parts);
-                if (t != null) {
-                    if (taskDone.equals("1")) {
-                        t.markDone(true);
-                    }
-                    this.tasks.add(t);
-                }
-            }
+    /**
+     * Moves the stored snapshot and journal aside after {@link #load()} failed, so saving the tasks
+     * loaded so far cannot overwrite them, then starts journaling further mutations of the list.
+     *
+     * @return where the snapshot was moved, or null if nothing was stored
+     * @throws IOException if the snapshot or journal cannot be moved
+     */
+    public String setAside() throws IOException {
+        String aside = this.backend.setAside();
+        this.tasks.addListener(this.journal);
+        return aside;
+    }
+
+    /**
+     * Estimates how many tasks the stored snapshot holds, without parsing it.
+     *
+     * @return the estimated number of tasks, or 0 if nothing is stored
+     * @throws IOException if the snapshot cannot be read
+     */
+    public long estimateTaskCount() throws IOException {
+        return this.backend.estimateTaskCount();
+    }
+
+    /**
+     * Replays journal records newer than the snapshot and attaches the journal to the list.
+     * Writes a fresh snapshot if the journal has grown large or the backend asks for the
+     * snapshot to be migrated.
+     */
+    private void replayJournal(long snapshotSeq) {
+        int replayed = 0;
+        try {
+            replayed = this.journal.replay(this.tasks, snapshotSeq);
+        } catch (IOException e) {
+            System.err.println("journal error: " + e.getMessage());
+        }
+        this.tasks.addListener(this.journal);
+        if (replayed < COMPACT_THRESHOLD && !this.backend.isOutdated()) {
+            return;
+        }
+        try {
+            save();
+        } catch (IOException e) {
+            System.err.println("compaction error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Serializes a task into one line of the snapshot format described in {@link #save()}.
+     *
+     * @param t the task to serialize
+     * @return the line, without a line separator
+     */
+    static String encode(Task t) {
+        String taskType = t.getTaskType();
+        int taskDone = t.isDone() ? 1 : 0;
+        String textToAdd = String.format("%s | %d | %s", taskType, taskDone, t.getDescription());
+        switch (taskType) {
+        case "D":
+            LocalDate dueDate = t.getDueDate();
+            textToAdd = textToAdd + " | " + dueDate;
+            break;
+        case "E":
+            LocalDateTime[] timePeriod = t.getTimePeriod();
+            textToAdd = textToAdd + " | " + timePeriod[0] + " | " + timePeriod[1];
+            break;
+        default:
+            break;
+        }
+        return textToAdd;
+    }
+
+    /**
+     * Parses one line of the snapshot format, including its done flag.
+     *
+     * @param line the line to parse
+     * @return the task, or null if the line is malformed
+     */
+    static Task decode(String line) {
+        return decode(line.trim().split("\\s*\\|\\s*", 5));
+    }
+
+    /**
+     * Builds a task from the fields of one snapshot line, including its done flag.
+     *
+     * @param parts the line split on {@code |}, at most five fields
+     * @return the task, or null if the fields are malformed
+     */
+    static Task decode(String[] parts) {
+        if (parts.length < 3) {
+            return null;
+        }
+        Task t = createTask(parts);
+        if (t != null && parts[1].trim().equals("1")) {
+            t.markDone(true);
         }
+        return t;
     }
 
-    private Task createTask(String[] parts) {
+    private static Task createTask(String[] parts) {
         String taskType = parts[0].trim(); // "T","D","E"
         String desc = parts[2].trim();
         try {
@@ -0,0 +1,152 @@
+package idkname.utility;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.List;
+
+import idkname.task.Task;
+
+/**
+ * Where and how {@link Storage} keeps the task list: a snapshot of every task plus
+ * a journal of the mutations made since that snapshot was written.
+ * <p>
+ * {@link Storage} owns the policy (group commits, durability, journal sequence numbers,
+ * compaction); a backend only moves bytes. Implementations:
+ * <ul>
+ *   <li>{@code text}: {@link TextBackend}, the pipe-delimited format read line by line</li>
+ *   <li>{@code binary}: {@link BinaryBackend}, see {@link BinarySnapshot}</li>
+ *   <li>{@code mmap}: {@link MappedBackend}, the text format read by mapping the file</li>
+ *   <li>{@code gzip}, {@code binary-gzip}: {@link CompressedBackend}, either format GZIP-compressed</li>
+ *   <li>{@code memory}: {@link InMemoryBackend}, nothing touches the disk</li>
+ * </ul>
+ */
+public interface StorageBackend {
+
+    /**
+     * Creates the backend registered under the given name.
+     *
+     * @param name     {@code text}, {@code binary}, {@code mmap}, {@code gzip}, {@code binary-gzip}
+     *                 or {@code memory} (case-insensitive)
+     * @param filePath the snapshot file; ignored by the in-memory backend
+     * @return the backend
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    static StorageBackend of(String name, String filePath) {
+        switch (name.trim().toLowerCase()) {
+        case "text":
+            return new TextBackend(filePath);
+        case "binary":
+            return new BinaryBackend(filePath);
+        case "mmap":
+            return new MappedBackend(filePath);
+        case "gzip":
+            return new CompressedBackend(filePath, false);
+        case "binary-gzip":
+            return new CompressedBackend(filePath, true);
+        case "memory":
+            return new InMemoryBackend();
+        default:
+            throw new IllegalArgumentException("Unknown storage backend: " + name);
+        }
+    }
+
+    /**
+     * Appends every task in the stored snapshot to the list, in order.
+     *
+     * @param tasks the list to load into
+     * @return the last journal sequence number contained in the snapshot
+     * @throws java.io.FileNotFoundException if no snapshot has been stored yet
+     * @throws IOException if the snapshot cannot be read
+     */
+    long load(TaskList tasks) throws IOException;
+
+    /**
+     * Replaces the stored snapshot with the given tasks. The old snapshot stays intact
+     * if this fails part-way.
+     *
+     * @param tasks      a private copy of the tasks, in list order
+     * @param journalSeq the last journal sequence number contained in the tasks
+     * @param isForced   whether the snapshot must be on stable storage when this returns
+     * @param metrics    receives the timings of the write
+     * @throws IOException if the snapshot cannot be written
+     */
+    void save(List<Task> tasks, long journalSeq, boolean isForced, SaveMetrics metrics) throws IOException;
+
+    /**
+     * Forces the last snapshot written with {@code isForced == false} to stable storage.
+     *
+     * @throws IOException if the snapshot cannot be forced
+     */
+    void sync() throws IOException;
+
+    /**
+     * Returns whether the snapshot read by the last {@link #load(TaskList)} should be
+     * rewritten, e.g. because it is in an older format than this backend writes.
+     *
+     * @return true if the next save is a migration
+     */
+    boolean isOutdated();
+
+    /**
+     * Estimates how many tasks the stored snapshot holds, without parsing it.
+     *
+     * @return the estimated number of tasks, or 0 if nothing is stored
+     * @throws IOException if the snapshot cannot be read
+     */
+    long estimateTaskCount() throws IOException;
+
+    /**
+     * Returns the size of the stored snapshot.
+     *
+     * @return the size in bytes, or 0 if nothing is stored
+     * @throws IOException if the size cannot be read
+     */
+    long getSize() throws IOException;
+
+    /**
+     * Appends one record to the journal and flushes it.
+     *
+     * @param record the record, without a line separator
+     * @throws IOException if the record cannot be written
+     */
+    void append(String record) throws IOException;
+
+    /**
+     * Appends several records to the journal and flushes them together.
+     * By default, appends each record on its own.
+     *
+     * @param records the records in order, without line separators
+     * @throws IOException if a record cannot be written
+     */
+    default void appendAll(List<String> records) throws IOException {
+        for (String record : records) {
+            append(record);
+        }
+    }
+
+    /**
+     * Opens the journal for reading.
+     *
+     * @return a reader over the journal records, or null if the journal is empty or missing
+     * @throws IOException if the journal exists but cannot be opened
+     */
+    BufferedReader readJournal() throws IOException;
+
+    /**
+     * Discards every journal record.
+     *
+     * @throws IOException if the journal cannot be truncated
+     */
+    void truncateJournal() throws IOException;
+
+    /**
+     * Moves the stored snapshot and journal out of the way, so the next save starts afresh instead of
+     * replacing them. Used when they could not be loaded. By default, there is nothing to move.
+     *
+     * @return where the snapshot was moved, or null if nothing was moved
+     * @throws IOException if the snapshot or journal cannot be moved
+     */
+    default String setAside() throws IOException {
+        return null;
+    }
+}
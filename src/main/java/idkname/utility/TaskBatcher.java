@@ -0,0 +1,41 @@
+package idkname.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import idkname.task.Task;
+
+/**
+ * Collects tasks produced by a loader and appends them to a {@link TaskList} in batches,
+ * so the list's lock is taken once per batch rather than once per task and readers
+ * see the list grow in steps while it loads.
+ */
+class TaskBatcher implements Consumer<Task> {
+    static final int BATCH_SIZE = 4096;
+
+    private final TaskList tasks;
+    private final List<Task> batch = new ArrayList<>(BATCH_SIZE);
+
+    TaskBatcher(TaskList tasks) {
+        this.tasks = tasks;
+    }
+
+    @Override
+    public void accept(Task t) {
+        this.batch.add(t);
+        if (this.batch.size() >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Appends any tasks still held in the current batch.
+     */
+    void flush() {
+        if (!this.batch.isEmpty()) {
+            this.tasks.addAll(this.batch);
+            this.batch.clear();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package idkname.utility;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import idkname.task.Deadline;
+import idkname.task.Event;
+import idkname.task.Task;
+import idkname.task.Todo;
+
+/**
+ * Parses the pipe-delimited snapshot format straight from bytes.
+ * <p>
+ * Produces the same tasks as the line-by-line path in {@link Storage#load()}, but
+ * scans for {@code |} and line breaks by hand instead of using a regex, and only
+ * allocates a String for each description. One instance holds a scratch buffer,
+ * so it must not be shared between threads.
+ */
+class TaskLineParser {
+    private static final int MAX_FIELDS = 5;
+
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private byte[] scratch = new byte[256];
+    private long snapshotSeq;
+
+    /**
+     * Returns the journal sequence number from the {@code J | seq} header, if one was seen.
+     *
+     * @return the sequence number, or 0
+     */
+    long getSnapshotSeq() {
+        return this.snapshotSeq;
+    }
+
+    /**
+     * Parses every complete line in {@code [from, to)} and passes each valid task to {@code out}.
+     * Malformed lines are skipped.
+     *
+     * @param buf  the buffer holding the file contents
+     * @param from absolute offset of the first byte of the first line
+     * @param to   absolute offset one past the last byte to parse
+     * @param out  receives the tasks in file order
+     * @return the number of tasks produced
+     */
+    int parse(ByteBuffer buf, int from, int to, Consumer<Task> out) {
+        int count = 0;
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && buf.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            Task t = parseLine(buf, lineStart, lineEnd);
+            if (t != null) {
+                out.accept(t);
+                count++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return count;
+    }
+
+    private Task parseLine(ByteBuffer buf, int start, int end) {
+        // trim the whole line, including a trailing '\r'
+        while (start < end && isBlank(buf.get(start))) {
+            start++;
+        }
+        while (end > start && isBlank(buf.get(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+
+        int fields = splitFields(buf, start, end);
+        if (fields == 2 && isSingle(buf, 0, 'J')) {
+            this.snapshotSeq = parseSeq(buf, fieldStart[1], fieldEnd[1]);
+            return null;
+        }
+        if (fields < 3 || fieldEnd[0] - fieldStart[0] != 1) {
+            return null;
+        }
+
+        Task t;
+        switch (buf.get(fieldStart[0])) {
+        case 'T':
+            t = new Todo(text(buf, 2));
+            break;
+        case 'D':
+            if (fields < 4) {
+                return null;
+            }
+            LocalDate date = date(buf, 3);
+            if (date == null) {
+                return null;
+            }
+            t = new Deadline(text(buf, 2), date);
+            break;
+        case 'E':
+            if (fields < 5) {
+                return null;
+            }
+            LocalDateTime eventStart = dateTime(buf, 3);
+            LocalDateTime eventEnd = dateTime(buf, 4);
+            if (eventStart == null || eventEnd == null) {
+                return null;
+            }
+            t = new Event(text(buf, 2), eventStart, eventEnd);
+            break;
+        default:
+            return null;
+        }
+        if (isSingle(buf, 1, '1')) {
+            t.markDone(true);
+        }
+        return t;
+    }
+
+    /**
+     * Splits a trimmed line on {@code |} into at most {@link #MAX_FIELDS} trimmed fields,
+     * the last of which holds the rest of the line.
+     */
+    private int splitFields(ByteBuffer buf, int start, int end) {
+        int fields = 0;
+        int pos = start;
+        while (true) {
+            int fieldEndPos = pos;
+            if (fields < MAX_FIELDS - 1) {
+                while (fieldEndPos < end && buf.get(fieldEndPos) != '|') {
+                    fieldEndPos++;
+                }
+            } else {
+                fieldEndPos = end;
+            }
+            int s = pos;
+            int e = fieldEndPos;
+            while (s < e && isBlank(buf.get(s))) {
+                s++;
+            }
+            while (e > s && isBlank(buf.get(e - 1))) {
+                e--;
+            }
+            fieldStart[fields] = s;
+            fieldEnd[fields] = e;
+            fields++;
+            if (fieldEndPos >= end) {
+                return fields;
+            }
+            pos = fieldEndPos + 1;
+        }
+    }
+
+    /**
+     * Returns whether the byte is an ASCII space or control character. Bytes of multi-byte UTF-8
+     * sequences are negative, so they must not be compared to {@code ' '} directly.
+     */
+    private static boolean isBlank(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    private boolean isSingle(ByteBuffer buf, int field, char c) {
+        return fieldEnd[field] - fieldStart[field] == 1 && buf.get(fieldStart[field]) == c;
+    }
+
+    private String text(ByteBuffer buf, int field) {
+        int len = fieldEnd[field] - fieldStart[field];
+        if (len > scratch.length) {
+            scratch = new byte[Math.max(len, scratch.length * 2)];
+        }
+        buf.get(fieldStart[field], scratch, 0, len);
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    private LocalDate date(ByteBuffer buf, int field) {
+        LocalDate d = IsoDates.parseDate(buf, fieldStart[field], fieldEnd[field] - fieldStart[field]);
+        if (d != null) {
+            return d;
+        }
+        try {
+            return Parser.localDateParse(text(buf, field));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private LocalDateTime dateTime(ByteBuffer buf, int field) {
+        LocalDateTime d = IsoDates.parseDateTime(buf, fieldStart[field], fieldEnd[field] - fieldStart[field]);
+        if (d != null) {
+            return d;
+        }
+        try {
+            return Parser.localDateTimeParse(text(buf, field)); // e.g. fractional seconds
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static long parseSeq(ByteBuffer buf, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) {
+                return 0;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
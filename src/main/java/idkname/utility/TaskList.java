@@ -4,25 +4,168 @@ import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
-import idkname.task.Deadline;
-import idkname.task.Event;
 import idkname.task.Task;
 import idkname.task.Todo;
 
 /**
  * Represents a list of tasks.
  * Provides operations to add, delete, retrieve, and update tasks.
+ * <p>
+ * Mutations are synchronized on the list, and each one ends by publishing an immutable
+ * {@link TaskListView} of the result. Readers ({@link #view()}, {@link #getTasks()}, {@link #get(int)},
+ * {@link #size()} and iteration) take no lock and always see a consistent version, so a background
+ * save or another thread can read while the UI thread keeps editing. Tasks are never changed in
+ * place once added: marking one replaces it with an updated copy.
+ * <p>
+ * Every task gets a stable id when it is added, and keeps it until it is deleted. Tasks live in
+ * {@link ChunkedSlots} in list order; deleting a task leaves a tombstone instead of shifting the
+ * slots after it, and the slots are compacted once a quarter of them are tombstones. Ids map to
+ * slots directly, so {@link #removeById} and {@link #markById} find their task in O(1); positions,
+ * i.e. the 1-based task numbers shown to the user less one, map to slots through {@link SlotRanks}
+ * in O(log n) while there are tombstones.
+ * <p>
+ * {@link #find(String)} looks tasks up by id in a {@link TrigramIndex}, built on the first search
+ * and kept up to date from then on. Likewise, {@link #sortTasks()} walks {@link SortedViews} built
+ * on the first sort, rather than sorting the list, the calendar queries ({@link #eventsBetween},
+ * {@link #freeSlots}) search an {@link EventIntervalTree} and the due-date queries
+ * ({@link #dueBefore}, {@link #dueOn}) a {@link DueDateIndex}. These queries hold the lock while
+ * they consult their index.
  */
 public class TaskList implements Iterable<Task> {
-    private ArrayList<Task> tasks = new ArrayList<>();
+    private static final String[] TASK_TYPES = {"T", "D", "E"};
+    private static final String[] TYPE_NAMES = {"todo", "deadline", "event"};
+
+    private ChunkedSlots tasks = new ChunkedSlots(); // null marks a deleted task
+    private volatile TaskListView current = TaskListView.EMPTY;
+    private final List<TaskListListener> listeners = new ArrayList<>();
+    private int[] ids = new int[16]; // by slot
+    private int[] slots = new int[16]; // by id; -1 once deleted
+    private int nextId;
+    private int tombstones;
+    private SlotRanks ranks; // null while there are no tombstones
+    private TrigramIndex index;
+    private SortedViews views;
+    private EventIntervalTree calendar;
+    private DueDateIndex dueDates;
+    private final TaskStats stats = new TaskStats();
+    private int batchDepth;
+    private List<Runnable> undoLog; // undoes each mutation of the open atomic batch; null outside one
 
     /**
      * Constructs an empty TaskList.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+    }
+
+    /**
+     * Registers a listener notified of every mutation of this list.
+     * Listeners are called while the list is locked, in registration order.
+     *
+     * @param listener the listener to add
+     */
+    public synchronized void addListener(TaskListListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addListener(TaskListListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public synchronized void removeListener(TaskListListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Runs several mutations as one unit, holding the lock throughout. Listeners are told when the
+     * outermost batch starts and ends, so they can write or save its changes together; nested
+     * batches join the outer one.
+     *
+     * @param mutations the work to run
+     * @param <T>       the type of its result
+     * @return the result of the work
+     */
+    public synchronized <T> T batch(Supplier<T> mutations) {
+        return runBatch(mutations, null);
+    }
+
+    /**
+     * Runs several mutations as one unit that is either kept whole or undone whole. If the work throws,
+     * or its result is a failure, every mutation it made is undone and listeners are told through
+     * {@link TaskListListener#onBatchRollback()} before the batch ends.
+     * <p>
+     * Each mutation records its inverse in an undo log, and compaction waits until the batch ends, so
+     * deleted tasks keep their slots and ids and can be put back. A batch that succeeds therefore costs
+     * O(1) extra per mutation, and undoing one costs as much as the mutations it made.
+     * Readers of {@link #view()} may briefly see the mutations of a batch that is then undone; listeners
+     * and saves never do.
+     *
+     * @param mutations the work to run
+     * @param isFailure tells from the result of the work whether to undo it
+     * @param <T>       the type of its result
+     * @return the result of the work
+     * @throws IllegalStateException if a batch is already open
+     */
+    public synchronized <T> T batch(Supplier<T> mutations, Predicate<? super T> isFailure) {
+        if (this.batchDepth > 0) {
+            throw new IllegalStateException("An atomic batch cannot be nested");
+        }
+        this.undoLog = new ArrayList<>();
+        return runBatch(mutations, isFailure);
+    }
+
+    private <T> T runBatch(Supplier<T> mutations, Predicate<? super T> isFailure) {
+        if (this.batchDepth++ == 0) {
+            for (TaskListListener listener : this.listeners) {
+                listener.onBatchStart();
+            }
+        }
+        boolean isKept = false;
+        try {
+            T result = mutations.get();
+            isKept = isFailure == null || !isFailure.test(result);
+            return result;
+        } finally {
+            if (--this.batchDepth == 0) {
+                if (this.undoLog != null) {
+                    if (!isKept) {
+                        rollback();
+                    }
+                    this.undoLog = null;
+                    compactIfSparse();
+                }
+                for (TaskListListener listener : this.listeners) {
+                    listener.onBatchEnd();
+                }
+            }
+        }
+    }
+
+    /**
+     * Undoes every mutation of the open atomic batch, newest first, and publishes the restored list.
+     */
+    private void rollback() {
+        List<Runnable> undo = this.undoLog;
+        this.undoLog = null; // undoing records nothing
+        for (int i = undo.size() - 1; i >= 0; i--) {
+            undo.get(i).run();
+        }
+        for (TaskListListener listener : this.listeners) {
+            listener.onBatchRollback();
+        }
+        publish();
     }
 
     /**
@@ -33,7 +176,7 @@ public class TaskList implements Iterable<Task> {
      * @param item the task description and additional data (e.g., date/time)
      * @throws DateTimeException if the input format for a date/time is invalid
      */
-    public String add(String type, String item) {
+    public synchronized String add(String type, String item) {
         assert type != null && item != null : "Index out of bounds";
         Task t;
         switch (type) {
@@ -41,25 +184,28 @@ public class TaskList implements Iterable<Task> {
                 t = new Todo(item);
                 break;
             case "deadline":
-                String[] deadlineParts = Parser.deadlineParse(item);
-                if (deadlineParts == null) throw new DateTimeException("");
-                t = new Deadline(deadlineParts[0],
-                        Parser.localDateParse(deadlineParts[1]));
+                t = Parser.deadlineTaskParse(item);
                 break;
             case "event":
-                String[] eventParts = Parser.eventParse(item);
-                if (eventParts == null) throw new DateTimeException("");
-                t = new Event(eventParts[0],
-                        Parser.localDateTimeParse(eventParts[1]),
-                        Parser.localDateTimeParse(eventParts[2]));
+                t = Parser.eventTaskParse(item);
                 break;
             default:
                 throw new IllegalArgumentException("Unknown task type: " + type);
         }
 
-        this.tasks.add(t);
+        return addWithResponse(t);
+    }
+
+    /**
+     * Adds a task directly to the list and confirms it to the user.
+     *
+     * @param t the task to add
+     * @return the confirmation, with the new number of tasks
+     */
+    public synchronized String addWithResponse(Task t) {
+        add(t);
         return String.format("Got it. I've added this task:%n %s%nNow you have %d tasks in the list.%n",
-                t, this.tasks.size());
+                t, size());
     }
 
     /**
@@ -67,46 +213,170 @@ public class TaskList implements Iterable<Task> {
      *
      * @param t the task to add
      */
-    public void add(Task t) {
-        this.tasks.add(t);
+    public synchronized void add(Task t) {
+        append(t);
+        for (TaskListListener listener : this.listeners) {
+            listener.onAdd(t);
+        }
+        publish();
     }
 
     /**
-     * Deletes a task from the list given its task number (1-based).
+     * Adds several tasks to the end of the list, in order.
      *
-     * @param taskNumber the 1-based task number as a string
-     * @throws NumberFormatException if the task number is not a valid integer
-     * @throws IndexOutOfBoundsException if the task number does not exist in the list
+     * @param batch the tasks to add
+     */
+    public synchronized void addAll(Collection<Task> batch) {
+        for (Task t : batch) {
+            append(t);
+            for (TaskListListener listener : this.listeners) {
+                listener.onAdd(t);
+            }
+        }
+        publish();
+    }
+
+    /**
+     * Deletes tasks from the list given their task numbers (1-based).
+     * Accepts a single number, a selection such as {@code 3,7,9-20}, or {@code done} for every
+     * completed task. Several tasks are deleted in one pass and reported in one summary.
+     *
+     * @param taskNumber the task numbers as a string, see {@link Parser#taskNumbersParse}
+     * @throws NumberFormatException if a task number is not a valid integer
+     * @throws IndexOutOfBoundsException if a task number does not exist in the list
+     */
+    public synchronized String delete(String taskNumber) {
+        int[] taskIds = taskNumber.trim().equalsIgnoreCase("done")
+                ? donePositions()
+                : Parser.taskNumbersParse(taskNumber, this.tasks.size()); // may throw NumberFormatException
+        if (taskIds.length == 0) {
+            return String.format("No tasks to delete.%n");
+        }
+        if (taskIds.length == 1) {
+            Task t = remove(taskIds[0]);
+            return String.format("Noted. I've removed this task: %n%s%n Now you have %d tasks in the list.%n",
+                    t,
+                    size());
+        }
+        List<Task> removed = removeAll(taskIds);
+        return String.format("Noted. I've removed %d tasks.%n Now you have %d tasks in the list.%n",
+                removed.size(),
+                size());
+    }
+
+    /**
+     * Removes the task at the given zero-based index.
+     *
+     * @param position the zero-based index of the task
+     * @return the removed task
+     * @throws IndexOutOfBoundsException if the index is out of range
      */
-    public String delete(String taskNumber) {
-        int taskId = Parser.getTaskId(taskNumber); // may throw NumberFormatException
-        assert taskId >= 0 && taskId < this.tasks.size() : "Index out of bounds";
-        Task t = this.tasks.get(taskId);
-        this.tasks.remove(t);
-        return String.format("Noted. I've removed this task: %n%s%n Now you have %d tasks in the list.%n",
-                t,
-                this.tasks.size());
+    public synchronized Task remove(int position) {
+        Task t = removeSlot(slotAt(position), position);
+        publish();
+        return t;
     }
 
     /**
-     * Retrieves a task by its zero-based index.
+     * Removes the task with the given stable id.
+     *
+     * @param id the id of the task, as returned by {@link #getId(int)}
+     * @return the removed task
+     * @throws IndexOutOfBoundsException if no task has that id
+     */
+    public synchronized Task removeById(int id) {
+        int slot = slotOf(id);
+        Task t = removeSlot(slot, positionOf(slot));
+        publish();
+        return t;
+    }
+
+    /**
+     * Removes the tasks at the given zero-based indices in one pass.
+     * Listeners are notified once, through {@link TaskListListener#onDeleteAll}.
+     *
+     * @param positions the zero-based indices of the tasks, in increasing order
+     * @return the removed tasks, in list order
+     * @throws IndexOutOfBoundsException if an index is out of range
+     * @throws IllegalArgumentException if the indices are not increasing
+     */
+    public synchronized List<Task> removeAll(int[] positions) {
+        checkPositions(positions);
+        int[] cleared = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            cleared[i] = slotAt(positions[i]); // before any of them becomes a tombstone
+        }
+        List<Task> removed = new ArrayList<>(positions.length);
+        for (int slot : cleared) {
+            Task t = this.tasks.get(slot);
+            int id = this.ids[slot];
+            unindex(id, t);
+            this.slots[id] = -1;
+            tombstone(slot);
+            if (this.undoLog != null) {
+                this.undoLog.add(() -> revive(slot, id, t));
+            }
+            removed.add(t);
+        }
+        compactIfSparse();
+        if (positions.length > 0) {
+            for (TaskListListener listener : this.listeners) {
+                listener.onDeleteAll(positions);
+            }
+        }
+        publish();
+        return removed;
+    }
+
+    /**
+     * Retrieves a task by its zero-based index, from the latest version. Takes no lock.
      *
      * @param taskNumber the zero-based index of the task
      * @return the task at the specified index
      * @throws IndexOutOfBoundsException if the index is out of range
      */
     public Task get(int taskNumber) {
-        assert taskNumber >= 0 && taskNumber < this.tasks.size() : "Index out of bounds";
-        return this.tasks.get(taskNumber);
+        return this.current.get(taskNumber);
+    }
+
+    /**
+     * Returns the stable id of the task at the given zero-based index.
+     * The id stays the same while other tasks are added or deleted.
+     *
+     * @param position the zero-based index of the task
+     * @return the id of the task
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public synchronized int getId(int position) {
+        return this.ids[slotAt(position)];
+    }
+
+    /**
+     * Returns the number of tasks in the latest version. Takes no lock.
+     *
+     * @return the number of tasks
+     */
+    public int size() {
+        return this.current.size();
     }
 
     /**
-     * Returns the underlying list of tasks.
+     * Returns the latest version of the list. Takes no lock; the version never changes, however
+     * the list is edited afterwards.
      *
-     * @return an ArrayList containing all tasks
+     * @return the latest published version
      */
-    public ArrayList<Task> getTasks() {
-        return this.tasks;
+    public TaskListView view() {
+        return this.current;
+    }
+
+    /**
+     * Returns the tasks of the latest version as a read-only list. Takes no lock.
+     *
+     * @return a List containing all tasks
+     */
+    public List<Task> getTasks() {
+        return this.current.getTasks();
     }
 
     /**
@@ -117,40 +387,434 @@ public class TaskList implements Iterable<Task> {
      * @throws NumberFormatException if the task number is not a valid integer
      * @throws IndexOutOfBoundsException if the task number does not exist in the list
      */
-    public String markDoneOrUndone(boolean b, String taskNumber) {
-        int taskId = Parser.getTaskId(taskNumber); // may throw NumberFormatException
-        assert taskId >= 0 && taskId < this.tasks.size() : "Index out of bounds";
-        Task t = this.tasks.get(taskId);
-        if (b) {
-            return t.markDone(false);
+    public synchronized String markDoneOrUndone(boolean b, String taskNumber) {
+        int[] taskIds = Parser.taskNumbersParse(taskNumber, this.tasks.size()); // may throw NumberFormatException
+        if (taskIds.length == 1) {
+            return mark(taskIds[0], b);
+        }
+        int changed = markAll(taskIds, b);
+        String unchanged = changed == taskIds.length
+                ? ""
+                : String.format("%n%d were already marked.", taskIds.length - changed);
+        return b
+                ? String.format("Nice! I've marked %d tasks as done.%s", changed, unchanged)
+                : String.format("OK, I've marked %d tasks as not done yet.%s", changed, unchanged);
+    }
+
+    /**
+     * Marks the task at the given zero-based index as done or undone.
+     * Listeners are only notified if the task's status actually changed.
+     *
+     * @param position the zero-based index of the task
+     * @param isDone   true to mark as done, false to mark as undone
+     * @return the message for the user
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public synchronized String mark(int position, boolean isDone) {
+        String response = markSlot(slotAt(position), isDone, position);
+        publish();
+        return response;
+    }
+
+    /**
+     * Marks the tasks at the given zero-based indices as done or undone.
+     * Listeners are notified once, through {@link TaskListListener#onMarkAll}, of the tasks whose
+     * status actually changed.
+     *
+     * @param positions the zero-based indices of the tasks, in increasing order
+     * @param isDone    true to mark as done, false to mark as undone
+     * @return the number of tasks whose status changed
+     * @throws IndexOutOfBoundsException if an index is out of range
+     * @throws IllegalArgumentException if the indices are not increasing
+     */
+    public synchronized int markAll(int[] positions, boolean isDone) {
+        checkPositions(positions);
+        int[] changed = new int[positions.length];
+        int count = 0;
+        for (int position : positions) {
+            int slot = slotAt(position);
+            Task t = this.tasks.get(slot);
+            if (t.isDone() == isDone) {
+                continue;
+            }
+            Task updated = t.copy();
+            if (isDone) {
+                updated.markDone(false);
+            } else {
+                updated.markUndone();
+            }
+            replace(slot, t, updated);
+            changed[count++] = position;
+        }
+        if (count > 0) {
+            int[] indices = Arrays.copyOf(changed, count);
+            for (TaskListListener listener : this.listeners) {
+                listener.onMarkAll(indices, isDone);
+            }
+        }
+        publish();
+        return count;
+    }
+
+    /**
+     * Marks the task with the given stable id as done or undone.
+     * Listeners are only notified if the task's status actually changed.
+     *
+     * @param id     the id of the task, as returned by {@link #getId(int)}
+     * @param isDone true to mark as done, false to mark as undone
+     * @return the message for the user
+     * @throws IndexOutOfBoundsException if no task has that id
+     */
+    public synchronized String markById(int id, boolean isDone) {
+        String response = markSlot(slotOf(id), isDone, -1);
+        publish();
+        return response;
+    }
+
+    /**
+     * Returns a deep copy of the latest version, unaffected by later mutations of this list or its tasks.
+     * The copy has no listeners. Takes no lock.
+     *
+     * @return a new TaskList holding copies of every task
+     */
+    public TaskList snapshot() {
+        return collect(sink -> this.current.forEach(t -> sink.accept(t.copy())));
+    }
+
+    /**
+     * Appends a task and gives it the next id, without notifying listeners.
+     */
+    private void append(Task t) {
+        int slot = this.tasks.slotCount();
+        if (slot == this.ids.length) {
+            this.ids = Arrays.copyOf(this.ids, slot * 2);
+        }
+        int id = this.nextId++;
+        if (id == this.slots.length) {
+            this.slots = Arrays.copyOf(this.slots, id * 2);
+        }
+        this.ids[slot] = id;
+        this.slots[id] = slot;
+        this.tasks.append(t);
+        if (this.ranks != null) {
+            this.ranks.append();
+        }
+        index(id, t);
+        if (this.undoLog != null) {
+            this.undoLog.add(() -> unappend(slot, id, t));
+        }
+    }
+
+    /**
+     * Adds a task to every index built so far.
+     */
+    private void index(int id, Task t) {
+        this.stats.add(t);
+        if (this.index != null) {
+            this.index.add(id, t.getDescription().toLowerCase());
+        }
+        if (this.views != null) {
+            this.views.add(id, t);
+        }
+        if (this.calendar != null && t.getTaskType().equals("E")) {
+            this.calendar.add(id, t);
+        }
+        if (this.dueDates != null && t.getTaskType().equals("D") && !t.isDone()) {
+            this.dueDates.add(id, t);
+        }
+    }
+
+    /**
+     * Undoes {@link #append}: removes the task in the last slot and hands its id out again.
+     */
+    private void unappend(int slot, int id, Task t) {
+        assert slot == this.tasks.slotCount() - 1 && id == this.nextId - 1 : "undone out of order";
+        unindex(id, t);
+        this.slots[id] = -1;
+        this.nextId = id;
+        this.tasks.removeLast();
+        if (this.ranks != null) {
+            this.ranks.removeLast();
+        }
+    }
+
+    /**
+     * Undoes {@link #removeSlot}: puts a deleted task back in its slot, under its old id.
+     */
+    private void revive(int slot, int id, Task t) {
+        if (slot == this.tasks.slotCount()) {
+            this.tasks.append(t); // it was the last slot, deleted without a tombstone
+            if (this.ranks != null) {
+                this.ranks.append();
+            }
         } else {
-            return t.markUndone();
+            this.tasks.set(slot, t);
+            this.ranks.restore(slot);
+            if (--this.tombstones == 0) {
+                this.ranks = null;
+            }
+        }
+        this.ids[slot] = id;
+        this.slots[id] = slot;
+        index(id, t);
+    }
+
+    /**
+     * Makes the current state of the list visible to readers.
+     */
+    private void publish() {
+        this.current = this.tasks.publish();
+    }
+
+    /**
+     * Builds a new list from the tasks a source passes to its sink, e.g. while walking an index.
+     */
+    private static TaskList collect(Consumer<Consumer<Task>> source) {
+        TaskList taskList = new TaskList();
+        source.accept(taskList::append);
+        taskList.publish();
+        return taskList;
+    }
+
+    /**
+     * Deletes the task in a slot and notifies listeners of its position.
+     */
+    private Task removeSlot(int slot, int position) {
+        Task t = this.tasks.get(slot);
+        int id = this.ids[slot];
+        unindex(id, t);
+        this.slots[id] = -1;
+        if (this.ranks == null && slot == this.tasks.slotCount() - 1) {
+            this.tasks.removeLast(); // no tombstone needed
+        } else {
+            tombstone(slot);
+        }
+        if (this.undoLog != null) {
+            this.undoLog.add(() -> revive(slot, id, t));
+        }
+        for (TaskListListener listener : this.listeners) {
+            listener.onDelete(position);
+        }
+        compactIfSparse();
+        return t;
+    }
+
+    /**
+     * Empties a slot, leaving a tombstone.
+     */
+    private void tombstone(int slot) {
+        this.tasks.set(slot, null);
+        if (this.ranks == null) {
+            this.ranks = new SlotRanks(this.tasks.slotCount());
+        }
+        this.ranks.clear(slot);
+        this.tombstones++;
+    }
+
+    /**
+     * Compacts the slots once a quarter of them are tombstones, unless an atomic batch may still put
+     * tasks back in them.
+     */
+    private void compactIfSparse() {
+        if (this.undoLog == null && this.tombstones * 4 > this.tasks.slotCount()) {
+            compact();
+        }
+    }
+
+    /**
+     * Removes a task from every index built so far.
+     */
+    private void unindex(int id, Task t) {
+        this.stats.remove(t);
+        if (this.index != null) {
+            this.index.remove(id, t.getDescription().toLowerCase());
+        }
+        if (this.views != null) {
+            this.views.remove(id, t);
+        }
+        if (this.calendar != null && t.getTaskType().equals("E")) {
+            this.calendar.remove(id, t);
+        }
+        if (this.dueDates != null && t.getTaskType().equals("D")) {
+            this.dueDates.remove(id, t);
+        }
+    }
+
+    /**
+     * Marks the task in a slot and notifies listeners of its position, if its status changed.
+     *
+     * @param position the position of the slot, or -1 if not known yet
+     */
+    private String markSlot(int slot, boolean isDone, int position) {
+        Task t = this.tasks.get(slot);
+        if (t.isDone() == isDone) {
+            return isDone ? t.markDone(false) : t.markUndone(); // "already marked" message
+        }
+        Task updated = t.copy();
+        String response = isDone ? updated.markDone(false) : updated.markUndone();
+        replace(slot, t, updated);
+        if (!this.listeners.isEmpty()) {
+            int at = position >= 0 ? position : positionOf(slot);
+            for (TaskListListener listener : this.listeners) {
+                listener.onMark(at, isDone);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Puts an updated copy of a task in its slot and in every index built so far.
+     * The task itself is left unchanged for the versions that still hold it.
+     */
+    private void replace(int slot, Task old, Task updated) {
+        if (this.undoLog != null) {
+            this.undoLog.add(() -> replace(slot, updated, old));
+        }
+        int id = this.ids[slot];
+        this.tasks.set(slot, updated);
+        this.stats.remove(old);
+        this.stats.add(updated);
+        if (this.views != null) {
+            this.views.remove(id, old);
+            this.views.add(id, updated);
+        }
+        if (this.calendar != null && old.getTaskType().equals("E")) {
+            this.calendar.remove(id, old);
+            this.calendar.add(id, updated);
+        }
+        if (this.dueDates != null && old.getTaskType().equals("D")) {
+            this.dueDates.remove(id, old);
+            if (!updated.isDone()) {
+                this.dueDates.add(id, updated);
+            }
+        }
+    }
+
+    /**
+     * Returns the zero-based indices of every completed task, in increasing order.
+     */
+    private int[] donePositions() {
+        int[] positions = new int[this.tasks.size()];
+        int count = 0;
+        int position = 0;
+        for (int slot = 0; slot < this.tasks.slotCount(); slot++) {
+            Task t = this.tasks.get(slot);
+            if (t != null) {
+                if (t.isDone()) {
+                    positions[count++] = position;
+                }
+                position++;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    private void checkPositions(int[] positions) {
+        int size = this.tasks.size();
+        for (int i = 0; i < positions.length; i++) {
+            Objects.checkIndex(positions[i], size);
+            if (i > 0 && positions[i] <= positions[i - 1]) {
+                throw new IllegalArgumentException("Indices must be increasing");
+            }
+        }
+    }
+
+    /**
+     * Moves every task down over the tombstones before it. Ids and positions are unchanged.
+     */
+    private void compact() {
+        if (this.tombstones == 0) {
+            return;
+        }
+        ChunkedSlots dense = new ChunkedSlots();
+        for (int slot = 0; slot < this.tasks.slotCount(); slot++) {
+            Task t = this.tasks.get(slot);
+            if (t != null) {
+                int live = dense.slotCount();
+                dense.append(t);
+                this.ids[live] = this.ids[slot];
+                this.slots[this.ids[live]] = live;
+            }
+        }
+        this.tasks = dense; // published versions keep the old chunks
+        this.tombstones = 0;
+        this.ranks = null;
+    }
+
+    private int slotAt(int position) {
+        Objects.checkIndex(position, this.tasks.size());
+        return this.ranks == null ? position : this.ranks.select(position);
+    }
+
+    private int positionOf(int slot) {
+        return this.ranks == null ? slot : this.ranks.rank(slot);
+    }
+
+    private int slotOf(int id) {
+        if (id < 0 || id >= this.nextId || this.slots[id] < 0) {
+            throw new IndexOutOfBoundsException("No task with id " + id);
+        }
+        return this.slots[id];
+    }
+
+    /**
+     * Passes every task and its id to the consumer, in list order.
+     */
+    private void forEachWithId(ObjIntConsumer<Task> consumer) {
+        for (int slot = 0; slot < this.tasks.slotCount(); slot++) {
+            Task t = this.tasks.get(slot);
+            if (t != null) {
+                consumer.accept(t, this.ids[slot]);
+            }
         }
     }
 
     /**
      * Searches the list for similar descriptions
+     * <p>
+     * Matches the same tasks as a case-insensitive {@link String#contains} over every description,
+     * but only checks the candidates the index returns. Queries shorter than three characters scan
+     * the latest version without taking the lock.
      *
      * @param description description to be searched
      * @return tasklist of all tasks with similar description
      */
     public TaskList find(String description) {
-        TaskList taskList = new TaskList();
-        this.tasks.stream()
-                .filter(t -> t.getDescription().toLowerCase().contains(description.toLowerCase()))
-                .forEach(taskList::add);
-        return taskList;
+        String query = description.toLowerCase();
+        if (query.length() < TrigramIndex.GRAM) {
+            return collect(sink -> this.current.forEach(t -> {
+                if (t.getDescription().toLowerCase().contains(query)) {
+                    sink.accept(t);
+                }
+            }));
+        }
+        synchronized (this) {
+            if (this.index == null) {
+                this.index = new TrigramIndex();
+                forEachWithId((t, id) -> this.index.add(id, t.getDescription().toLowerCase()));
+            }
+            return collect(sink -> {
+                for (int id : this.index.candidates(query)) {
+                    Task t = this.tasks.get(this.slots[id]); // candidates are never deleted tasks
+                    if (t.getDescription().toLowerCase().contains(query)) {
+                        sink.accept(t);
+                    }
+                }
+            });
+        }
     }
 
     /**
-     * Returns all tasks in sorted order.
+     * Returns all tasks in sorted order: todos, then deadlines by due date, then events by start.
+     * Tasks that compare equal keep their list order.
      */
-    public TaskList sortTasks() {
-        TaskList sortedTaskList = new TaskList();
-        this.tasks.stream()
-                .sorted()
-                .forEach(sortedTaskList::add);
-        return sortedTaskList;
+    public synchronized TaskList sortTasks() {
+        SortedViews sorted = views();
+        return collect(sink -> {
+            for (String taskType : TASK_TYPES) {
+                sorted.view(taskType).forEach(sink);
+            }
+        });
     }
 
     /**
@@ -158,7 +822,7 @@ public class TaskList implements Iterable<Task> {
      *
      * @param description task type to filter by
      */
-    public TaskList sortTasks(String description) {
+    public synchronized TaskList sortTasks(String description) {
         if (description == null || description.isBlank()) {
             return new TaskList(); // empty
         }
@@ -173,21 +837,246 @@ public class TaskList implements Iterable<Task> {
         }
         }
 
-        TaskList sortedTaskList = new TaskList();
-        this.tasks.stream()
-                .filter(t -> t.getTaskType().equals(taskType))
-                .sorted()
-                .forEach(sortedTaskList::add);
-        return sortedTaskList;
+        return collect(sink -> views().view(taskType).forEach(sink));
+    }
+
+    /**
+     * Returns the sorted views, building them from the list on first use.
+     */
+    private SortedViews views() {
+        if (this.views == null) {
+            this.views = new SortedViews();
+            forEachWithId((t, id) -> this.views.add(id, t));
+        }
+        return this.views;
+    }
+
+    /**
+     * Returns the k soonest deadlines and events not done yet: deadlines due today or later and events
+     * starting now or later. They are ordered by date, a deadline counting from the start of its due
+     * date; a deadline comes before an event starting at that moment, and ties keep their list order.
+     * <p>
+     * Once {@link #sortTasks()} has built the sorted views, walks them from now on and stops after k
+     * tasks not done per type. Otherwise scans the latest version without the lock, keeping the k
+     * soonest in a bounded heap, in O(n log k).
+     *
+     * @param k           the maximum number of tasks to return
+     * @param description task type to filter by (deadline, event), or null for both
+     * @param now         the current time
+     * @return tasklist of at most k tasks, soonest first; empty for any other type
+     */
+    public TaskList next(int k, String description, LocalDateTime now) {
+        String[] taskTypes;
+        switch (description == null ? "" : description.trim().toLowerCase()) {
+        case "" -> taskTypes = new String[] {"D", "E"};
+        case "deadline" -> taskTypes = new String[] {"D"};
+        case "event" -> taskTypes = new String[] {"E"};
+        default -> {
+            return new TaskList();
+        }
+        }
+        if (k <= 0) {
+            return new TaskList();
+        }
+
+        synchronized (this) {
+            if (this.views != null) {
+                return collect(sink -> nextFromViews(k, taskTypes, now).forEach(sink));
+            }
+        }
+        PriorityQueue<Upcoming> latestFirst = new PriorityQueue<>(k + 1, Comparator.reverseOrder());
+        int order = 0;
+        for (Task t : this.current) {
+            order++;
+            if (!isUpcoming(t, taskTypes, now)) {
+                continue;
+            }
+            Upcoming candidate = new Upcoming(t, order);
+            if (latestFirst.size() < k) {
+                latestFirst.add(candidate);
+            } else if (candidate.compareTo(latestFirst.peek()) < 0) {
+                latestFirst.poll();
+                latestFirst.add(candidate);
+            }
+        }
+        Upcoming[] soonest = latestFirst.toArray(new Upcoming[0]);
+        Arrays.sort(soonest);
+        return collect(sink -> {
+            for (Upcoming u : soonest) {
+                sink.accept(u.task);
+            }
+        });
+    }
+
+    /**
+     * Returns the k soonest tasks not done of the given types, read from the sorted views.
+     */
+    private List<Task> nextFromViews(int k, String[] taskTypes, LocalDateTime now) {
+        List<Task> soonest = new ArrayList<>();
+        for (String taskType : taskTypes) {
+            Collection<Task> sorted = taskType.equals("D")
+                    ? this.views.viewFrom(taskType, now.toLocalDate())
+                    : this.views.viewFrom(taskType, now);
+            int taken = 0;
+            for (Iterator<Task> it = sorted.iterator(); taken < k && it.hasNext(); ) {
+                Task t = it.next();
+                if (!t.isDone()) {
+                    soonest.add(t);
+                    taken++;
+                }
+            }
+        }
+        soonest.sort(Upcoming.ORDER); // at most 2k tasks; the sort is stable, so ties keep list order
+        return soonest.subList(0, Math.min(k, soonest.size()));
+    }
+
+    private static boolean isUpcoming(Task t, String[] taskTypes, LocalDateTime now) {
+        if (t.isDone() || !Arrays.asList(taskTypes).contains(t.getTaskType())) {
+            return false;
+        }
+        return t.getTaskType().equals("D")
+                ? !t.getDueDate().isBefore(now.toLocalDate())
+                : !t.getTimePeriod()[0].isBefore(now);
+    }
+
+    /**
+     * A deadline or event found by {@link #next}, with its list order to break ties.
+     */
+    private static final class Upcoming implements Comparable<Upcoming> {
+        static final Comparator<Task> ORDER = Comparator
+                .comparing((Task t) -> t.getTaskType().equals("D")
+                        ? t.getDueDate().atStartOfDay()
+                        : t.getTimePeriod()[0])
+                .thenComparing(Task::getTaskType);
+
+        private final Task task;
+        private final int order;
+
+        Upcoming(Task task, int order) {
+            this.task = task;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Upcoming other) {
+            int byDate = ORDER.compare(this.task, other.task);
+            return byDate != 0 ? byDate : Integer.compare(this.order, other.order);
+        }
+    }
+
+    /**
+     * Returns the events taking place at the given time, by start.
+     *
+     * @param time the time to check
+     * @return tasklist of every event whose period includes the time
+     */
+    public synchronized TaskList eventsOn(LocalDateTime time) {
+        return eventsBetween(time, time);
+    }
+
+    /**
+     * Returns the events overlapping the given period, by start.
+     * An event that ends exactly when the period starts, or starts exactly when it ends, overlaps it.
+     *
+     * @param from the start of the period
+     * @param to   the end of the period
+     * @return tasklist of every event overlapping the period
+     */
+    public synchronized TaskList eventsBetween(LocalDateTime from, LocalDateTime to) {
+        return collect(sink -> calendar().overlapping(from, to, sink));
+    }
+
+    /**
+     * Returns the parts of the given period not taken up by any event.
+     *
+     * @param from the start of the period
+     * @param to   the end of the period
+     * @return the free periods as [start, end] pairs, in order
+     */
+    public synchronized List<LocalDateTime[]> freeSlots(LocalDateTime from, LocalDateTime to) {
+        return calendar().gaps(from, to);
+    }
+
+    /**
+     * Returns the interval tree of events, building it from the list on first use.
+     */
+    private EventIntervalTree calendar() {
+        if (this.calendar == null) {
+            this.calendar = new EventIntervalTree();
+            forEachWithId((t, id) -> {
+                if (t.getTaskType().equals("E")) {
+                    this.calendar.add(id, t);
+                }
+            });
+        }
+        return this.calendar;
+    }
+
+    /**
+     * Returns the deadlines not done yet that are due strictly before the given date, by due date.
+     *
+     * @param date the exclusive upper bound
+     * @return tasklist of the matching deadlines
+     */
+    public synchronized TaskList dueBefore(LocalDate date) {
+        return collect(sink -> dueDates().before(date, sink));
+    }
+
+    /**
+     * Returns the deadlines not done yet that are due on the given date.
+     *
+     * @param date the due date
+     * @return tasklist of the matching deadlines
+     */
+    public synchronized TaskList dueOn(LocalDate date) {
+        return collect(sink -> dueDates().on(date, sink));
+    }
+
+    /**
+     * Returns the due-date index, building it from the list on first use.
+     */
+    private DueDateIndex dueDates() {
+        if (this.dueDates == null) {
+            this.dueDates = new DueDateIndex();
+            forEachWithId((t, id) -> {
+                if (t.getTaskType().equals("D") && !t.isDone()) {
+                    this.dueDates.add(id, t);
+                }
+            });
+        }
+        return this.dueDates;
+    }
+
+    /**
+     * Summarizes the list: the number of tasks of each type, how many of them are done, and how many
+     * deadlines are overdue. Reads counters kept up to date by every change, instead of scanning.
+     *
+     * @param today the current date, for the overdue count
+     * @return the summary, one line per type and a total
+     */
+    public synchronized String stats(LocalDate today) {
+        StringBuilder sb = new StringBuilder(String.format("Here is a summary of your tasks:%n"));
+        int done = 0;
+        for (int i = 0; i < TASK_TYPES.length; i++) {
+            int typeDone = this.stats.count(TASK_TYPES[i], true);
+            done += typeDone;
+            sb.append(String.format(" %s: %d (%d done", TYPE_NAMES[i],
+                    typeDone + this.stats.count(TASK_TYPES[i], false), typeDone));
+            if (TASK_TYPES[i].equals("D")) {
+                sb.append(String.format(", %d overdue", this.stats.overdue(today)));
+            }
+            sb.append(String.format(")%n"));
+        }
+        return sb.append(String.format(" total: %d (%d done)%n", size(), done)).toString();
     }
 
     /**
-     * Returns an iterator over the tasks in the list.
+     * Returns an iterator over the tasks of the latest version. Takes no lock.
      *
      * @return an iterator of Task objects
      */
     @Override
     public Iterator<Task> iterator() {
-        return tasks.iterator();
+        return this.current.iterator();
     }
 }
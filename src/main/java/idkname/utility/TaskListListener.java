@@ -0,0 +1,78 @@
+package idkname.utility;
+
+import idkname.task.Task;
+
+/**
+ * Receives a callback for every user-visible mutation of a {@link TaskList}.
+ * Used to keep persistent storage in step with the in-memory list.
+ */
+public interface TaskListListener {
+    /**
+     * Called after a task has been appended to the list.
+     *
+     * @param t the task that was added
+     */
+    void onAdd(Task t);
+
+    /**
+     * Called after the task at the given zero-based index has been removed.
+     *
+     * @param index the zero-based index the task occupied
+     */
+    void onDelete(int index);
+
+    /**
+     * Called after the task at the given zero-based index has been marked or unmarked.
+     *
+     * @param index  the zero-based index of the task
+     * @param isDone the new completion status
+     */
+    void onMark(int index, boolean isDone);
+
+    /**
+     * Called after the tasks at the given zero-based indices have been removed in one batch.
+     * The indices are those the tasks occupied before the batch, in increasing order.
+     * By default, reports each removal on its own, last index first.
+     *
+     * @param indices the indices the tasks occupied
+     */
+    default void onDeleteAll(int[] indices) {
+        for (int i = indices.length - 1; i >= 0; i--) {
+            onDelete(indices[i]);
+        }
+    }
+
+    /**
+     * Called after the tasks at the given zero-based indices have been marked or unmarked in one batch.
+     * Only tasks whose status changed are included, in increasing order. By default, reports each on its own.
+     *
+     * @param indices the indices of the tasks
+     * @param isDone  the new completion status
+     */
+    default void onMarkAll(int[] indices, boolean isDone) {
+        for (int index : indices) {
+            onMark(index, isDone);
+        }
+    }
+
+    /**
+     * Called before the mutations of a {@link TaskList#batch batch}, e.g. a pipeline of commands.
+     * The callbacks up to {@link #onBatchEnd()} describe one unit of work. By default, does nothing.
+     */
+    default void onBatchStart() {
+    }
+
+    /**
+     * Called when the mutations of an atomic batch have been undone, just before {@link #onBatchEnd()}.
+     * The list is back as it was at {@link #onBatchStart()}, so the callbacks in between describe changes
+     * that no longer exist; a listener that keeps state must discard what they did. By default, does nothing.
+     */
+    default void onBatchRollback() {
+    }
+
+    /**
+     * Called after the mutations of a batch, even if one of them failed. By default, does nothing.
+     */
+    default void onBatchEnd() {
+    }
+}
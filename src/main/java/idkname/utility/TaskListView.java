@@ -0,0 +1,149 @@
+package idkname.utility;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import idkname.task.Task;
+
+/**
+ * An immutable version of a {@link TaskList}, published by the list after every mutation.
+ * <p>
+ * Shares its chunks of task slots with the list and with other versions; the list copies a chunk
+ * before changing a slot a published version can see, and replaces a task instead of marking it,
+ * so a version never changes once published. Any number of threads may read a version without
+ * locking while the list keeps changing. Slots of deleted tasks are null and are skipped.
+ */
+public final class TaskListView implements Iterable<Task> {
+    static final TaskListView EMPTY = new TaskListView(new Task[0][], 0, 0, new int[1]);
+
+    private final Task[][] chunks;
+    private final int chunkCount;
+    private final int slotCount;
+    private final int size;
+    private final int[] liveBefore;
+
+    /**
+     * Constructs a version over the given slots.
+     *
+     * @param chunks     the chunks of slots; only the first {@code slotCount} slots are read
+     * @param slotCount  the number of slots, including those of deleted tasks
+     * @param size       the number of tasks
+     * @param liveBefore for every chunk, the number of tasks in the chunks before it
+     */
+    TaskListView(Task[][] chunks, int slotCount, int size, int[] liveBefore) {
+        this.chunks = chunks;
+        this.chunkCount = (slotCount + ChunkedSlots.CHUNK_SIZE - 1) >>> ChunkedSlots.CHUNK_SHIFT;
+        this.slotCount = slotCount;
+        this.size = size;
+        this.liveBefore = liveBefore;
+    }
+
+    /**
+     * Returns the number of tasks in this version.
+     *
+     * @return the number of tasks
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Retrieves a task by its zero-based index.
+     * Finds the chunk by binary search, then counts live slots only if the chunk has tombstones.
+     *
+     * @param position the zero-based index of the task
+     * @return the task at the specified index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Task get(int position) {
+        Objects.checkIndex(position, this.size);
+        int lo = 0;
+        int hi = this.chunkCount - 1;
+        while (lo < hi) { // last chunk with liveBefore <= position
+            int mid = (lo + hi + 1) >>> 1;
+            if (this.liveBefore[mid] <= position) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        Task[] chunk = this.chunks[lo];
+        int offset = position - this.liveBefore[lo];
+        int live = (lo + 1 < this.chunkCount ? this.liveBefore[lo + 1] : this.size) - this.liveBefore[lo];
+        int filled = Math.min(ChunkedSlots.CHUNK_SIZE, this.slotCount - (lo << ChunkedSlots.CHUNK_SHIFT));
+        if (live == filled) {
+            return chunk[offset];
+        }
+        for (Task t : chunk) {
+            if (t != null && offset-- == 0) {
+                return t;
+            }
+        }
+        throw new IllegalStateException("Chunk holds fewer tasks than counted");
+    }
+
+    /**
+     * Returns the tasks of this version as an unmodifiable list.
+     *
+     * @return a read-only list of every task, in order
+     */
+    public List<Task> getTasks() {
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return TaskListView.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return TaskListView.this.size;
+            }
+
+            @Override
+            public Iterator<Task> iterator() {
+                return TaskListView.this.iterator();
+            }
+        };
+    }
+
+    /**
+     * Returns an iterator over the tasks in this version.
+     *
+     * @return an iterator of Task objects
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private int slot = advance(0);
+
+            @Override
+            public boolean hasNext() {
+                return this.slot < slotCount;
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Task t = chunks[this.slot >>> ChunkedSlots.CHUNK_SHIFT][this.slot & ChunkedSlots.CHUNK_MASK];
+                this.slot = advance(this.slot + 1);
+                return t;
+            }
+        };
+    }
+
+    /**
+     * Returns the first slot at or after the given one that holds a task.
+     */
+    private int advance(int slot) {
+        while (slot < this.slotCount
+                && this.chunks[slot >>> ChunkedSlots.CHUNK_SHIFT][slot & ChunkedSlots.CHUNK_MASK] == null) {
+            slot++;
+        }
+        return slot;
+    }
+}
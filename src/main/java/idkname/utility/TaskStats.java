@@ -0,0 +1,88 @@
+package idkname.utility;
+
+import java.time.LocalDate;
+import java.util.TreeMap;
+
+import idkname.task.Task;
+
+/**
+ * Counts the tasks of a {@link TaskList} by type and done state, and the deadlines not done yet
+ * that are overdue.
+ * <p>
+ * {@link TaskList} reports every task it adds or deletes, and both the old and the new task when
+ * one is marked, so each count is read in O(1). The overdue count depends on the day it is asked
+ * for: it is kept for the last day asked about, and when the day moves on only the deadlines due in
+ * between are added. Not thread-safe; {@link TaskList} only uses it under its lock.
+ */
+class TaskStats {
+    private static final String TYPES = "TDE";
+
+    private final int[][] counts = new int[TYPES.length()][2]; // by type, then not done/done
+    private final TreeMap<LocalDate, Integer> undoneDeadlines = new TreeMap<>(); // by due date
+    private LocalDate today; // null until the overdue count is first asked for
+    private int overdue; // undone deadlines due before today
+
+    /**
+     * Counts a task added to the list.
+     *
+     * @param t the task
+     */
+    void add(Task t) {
+        adjust(t, 1);
+    }
+
+    /**
+     * Stops counting a task deleted from the list, or replaced by a marked copy.
+     *
+     * @param t the task, in the state it was counted in
+     */
+    void remove(Task t) {
+        adjust(t, -1);
+    }
+
+    private void adjust(Task t, int delta) {
+        this.counts[TYPES.indexOf(t.getTaskType())][t.isDone() ? 1 : 0] += delta;
+        if (t.getTaskType().equals("D") && !t.isDone()) {
+            this.undoneDeadlines.merge(t.getDueDate(), delta, (a, b) -> a + b == 0 ? null : a + b);
+            if (this.today != null && t.getDueDate().isBefore(this.today)) {
+                this.overdue += delta;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tasks of a type in a done state.
+     *
+     * @param taskType "T", "D" or "E"
+     * @param isDone   whether to count done tasks or those not done
+     * @return the number of matching tasks
+     */
+    int count(String taskType, boolean isDone) {
+        return this.counts[TYPES.indexOf(taskType)][isDone ? 1 : 0];
+    }
+
+    /**
+     * Returns the number of deadlines not done yet that are due before the given day.
+     * O(1) when asked about the same day again; otherwise walks the due dates between the two days.
+     *
+     * @param today the current date
+     * @return the number of overdue deadlines
+     */
+    int overdue(LocalDate today) {
+        if (this.today == null || today.isBefore(this.today)) {
+            this.overdue = sum(LocalDate.MIN, today);
+        } else if (today.isAfter(this.today)) {
+            this.overdue += sum(this.today, today);
+        }
+        this.today = today;
+        return this.overdue;
+    }
+
+    private int sum(LocalDate from, LocalDate to) {
+        int total = 0;
+        for (int count : this.undoneDeadlines.subMap(from, true, to, false).values()) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,17 @@
+package idkname.utility;
+
+/**
+ * Keeps the snapshot in the human-readable pipe-delimited format described in {@link Storage#save()},
+ * reading it back line by line.
+ */
+public class TextBackend extends FileBackend {
+
+    /**
+     * Constructs a text backend for the given snapshot file.
+     *
+     * @param filePath the path to the snapshot file
+     */
+    public TextBackend(String filePath) {
+        super(filePath, false);
+    }
+}
@@ -0,0 +1,179 @@
+package idkname.utility;
+
+import java.util.Arrays;
+
+/**
+ * Maps every three-character substring (trigram) of the lower-case task descriptions to the ids
+ * of the tasks containing it.
+ * <p>
+ * A description containing the query contains each of the query's trigrams, so intersecting their
+ * posting lists gives a superset of the matches; callers confirm each candidate with
+ * {@link String#contains}, so results are exactly those of a scan. Queries shorter than
+ * {@link #GRAM} characters have no trigrams and must be answered by a scan.
+ * <p>
+ * To stay small at millions of tasks, trigrams are packed into {@code long} keys of an
+ * open-addressing table and every posting list is a sorted {@code int[]}; nothing is boxed.
+ * Not thread-safe; {@link TaskList} only uses it under its lock.
+ */
+class TrigramIndex {
+    static final int GRAM = 3;
+    private static final long EMPTY = 0;
+
+    private long[] keys = new long[1024];
+    private int[][] postings = new int[1024][];
+    private int[] sizes = new int[1024];
+    private int used;
+
+    /**
+     * Indexes a task. Ids must be added in increasing order.
+     *
+     * @param id          the stable id of the task
+     * @param description the lower-case description of the task
+     */
+    void add(int id, String description) {
+        for (int i = 0; i + GRAM <= description.length(); i++) {
+            int slot = slotOf(key(description, i), true);
+            int size = this.sizes[slot];
+            int[] list = this.postings[slot];
+            if (size > 0 && list[size - 1] == id) {
+                continue; // the trigram occurs more than once in this description
+            }
+            if (size == list.length) {
+                list = Arrays.copyOf(list, size * 2);
+                this.postings[slot] = list;
+            }
+            list[size] = id;
+            this.sizes[slot] = size + 1;
+        }
+    }
+
+    /**
+     * Removes a task added with the same id and description.
+     *
+     * @param id          the stable id of the task
+     * @param description the lower-case description of the task
+     */
+    void remove(int id, String description) {
+        for (int i = 0; i + GRAM <= description.length(); i++) {
+            int slot = slotOf(key(description, i), false);
+            if (slot < 0) {
+                continue;
+            }
+            int size = this.sizes[slot];
+            int[] list = this.postings[slot];
+            int at = Arrays.binarySearch(list, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(list, at + 1, list, at, size - at - 1);
+                this.sizes[slot] = size - 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of the tasks whose description contains every trigram of the query.
+     * Starts from the shortest posting list, so the cost is bounded by its length rather than
+     * by the number of tasks.
+     *
+     * @param query the lower-case query, at least {@link #GRAM} characters long
+     * @return the sorted candidate ids
+     */
+    int[] candidates(String query) {
+        assert query.length() >= GRAM : "query too short for the trigram index";
+        int grams = query.length() - GRAM + 1;
+        int[] slots = new int[grams];
+        for (int i = 0; i < grams; i++) {
+            slots[i] = slotOf(key(query, i), false);
+            if (slots[i] < 0 || this.sizes[slots[i]] == 0) {
+                return new int[0];
+            }
+        }
+        int shortest = 0;
+        for (int i = 1; i < grams; i++) {
+            if (this.sizes[slots[i]] < this.sizes[slots[shortest]]) {
+                shortest = i;
+            }
+        }
+        int[] result = Arrays.copyOf(this.postings[slots[shortest]], this.sizes[slots[shortest]]);
+        int count = result.length;
+        for (int i = 0; i < grams && count > 0; i++) {
+            if (slots[i] == slots[shortest]) {
+                continue;
+            }
+            int[] list = this.postings[slots[i]];
+            int size = this.sizes[slots[i]];
+            int kept = 0;
+            int from = 0;
+            for (int c = 0; c < count; c++) {
+                int at = Arrays.binarySearch(list, from, size, result[c]);
+                if (at >= 0) {
+                    result[kept++] = result[c];
+                    from = at + 1;
+                } else {
+                    from = -at - 1;
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static long key(String s, int i) {
+        // +1 keeps the key of "\0\0\0" distinct from EMPTY
+        return (((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2)) + 1;
+    }
+
+    /**
+     * Finds the slot of a key, linear probing from its hash.
+     *
+     * @param isCreating true to claim an empty slot for a missing key
+     * @return the slot, or -1 if the key is missing and {@code isCreating} is false
+     */
+    private int slotOf(long key, boolean isCreating) {
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.keys[slot] != EMPTY) {
+            if (this.keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!isCreating) {
+            return -1;
+        }
+        if ((this.used + 1) * 4 > this.keys.length * 3) {
+            grow();
+            return slotOf(key, true);
+        }
+        this.keys[slot] = key;
+        this.postings[slot] = new int[2];
+        this.used++;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = this.keys;
+        int[][] oldPostings = this.postings;
+        int[] oldSizes = this.sizes;
+        this.keys = new long[oldKeys.length * 2];
+        this.postings = new int[oldKeys.length * 2][];
+        this.sizes = new int[oldKeys.length * 2];
+        int mask = this.keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) {
+                continue;
+            }
+            int slot = hash(oldKeys[i]) & mask;
+            while (this.keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            this.keys[slot] = oldKeys[i];
+            this.postings[slot] = oldPostings[i];
+            this.sizes[slot] = oldSizes[i];
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,59 @@
+package idkname.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AutoSaverTest {
+
+    @TempDir
+    Path tempDir;
+
+    private int savedTaskCount(File file) throws IOException {
+        TaskList loaded = new TaskList();
+        new Storage(loaded, file.getAbsolutePath()).load();
+        return loaded.getTasks().size();
+    }
+
+    @Test
+    void burstIsSavedOnceListGoesQuiet() throws Exception {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        TaskList list = new TaskList();
+        AutoSaver saver = new AutoSaver(new Storage(list, file.getAbsolutePath()), 50, 10_000);
+        list.addListener(saver);
+        saver.start();
+
+        list.add("todo", "a");
+        list.add("todo", "b");
+        list.add("todo", "c");
+        assertFalse(file.exists());
+
+        for (int i = 0; i < 100 && !file.exists(); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(file.exists());
+        saver.flush();
+        assertEquals(3, savedTaskCount(file));
+    }
+
+    @Test
+    void flushSavesPendingChanges() throws Exception {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        TaskList list = new TaskList();
+        AutoSaver saver = new AutoSaver(new Storage(list, file.getAbsolutePath()), 60_000, 60_000);
+        list.addListener(saver);
+        saver.start();
+
+        list.add("todo", "a");
+        saver.flush();
+
+        assertEquals(1, savedTaskCount(file));
+    }
+}
@@ -0,0 +1,57 @@
+package idkname.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CommandLineTest {
+
+    @Test
+    void splitsCommandAndTrimmedArgument() {
+        CommandLine line = new CommandLine().reset("  Deadline \t finish report / 2025-12-12  ");
+        assertEquals("Deadline", line.command());
+        assertTrue(line.isCommand("deadline"));
+        assertFalse(line.isCommand("dead"));
+        assertEquals("finish report / 2025-12-12", line.argument());
+    }
+
+    @Test
+    void commandWithoutArgument() {
+        CommandLine line = new CommandLine().reset("list  ");
+        assertEquals("list", line.command());
+        assertFalse(line.hasArgument());
+        assertNull(line.argument());
+    }
+
+    @Test
+    void blankLineHasEmptyCommand() {
+        CommandLine line = new CommandLine().reset("   ");
+        assertEquals("", line.command());
+        assertFalse(line.hasArgument());
+    }
+
+    @Test
+    void resetReplacesThePreviousLine() {
+        CommandLine line = new CommandLine();
+        line.reset("mark 1-5");
+        line.reset("find");
+        assertTrue(line.isCommand("FIND"));
+        assertFalse(line.hasArgument());
+    }
+
+    @Test
+    void dispatchTableLooksUpWordsIgnoringCase() {
+        DispatchTable<String> table = new DispatchTable<>(4);
+        table.put("todo", "T");
+        table.put("deadline", "D");
+        table.put("event", "E");
+        String input = "  EvEnt party/2025-10-01T18:00/2025-10-01T23:00";
+        CommandLine line = new CommandLine().reset(input);
+        assertEquals("E", table.get(input, line.commandStart(), line.commandEnd()));
+        assertNull(table.get("todos", 0, 5));
+        assertEquals("T", table.get("todos", 0, 4));
+    }
+}
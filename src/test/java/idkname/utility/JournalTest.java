@@ -0,0 +1,137 @@
+package idkname.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TaskList loadFrom(File file) {
+        TaskList list = new TaskList();
+        try {
+            new Storage(list, file.getAbsolutePath()).load();
+        } catch (IOException e) {
+            // no snapshot yet; the journal alone is replayed
+        }
+        return list;
+    }
+
+    @Test
+    void mutationsWithoutSaveAreReplayedFromJournal() {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+
+        TaskList session = loadFrom(file);
+        session.add("todo", "a");
+        session.add("todo", "b");
+        session.add("deadline", "c / 2025-12-12");
+        session.markDoneOrUndone(true, "3");
+        session.delete("1");
+        // no save: simulates a crash
+
+        TaskList recovered = loadFrom(file);
+        assertEquals(2, recovered.getTasks().size());
+        assertEquals("b", recovered.get(0).getDescription());
+        assertEquals("c", recovered.get(1).getDescription());
+        assertTrue(recovered.get(1).isDone());
+    }
+
+    @Test
+    void saveFoldsJournalIntoSnapshot() throws IOException {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        File journal = tempDir.resolve("IDKName.txt.journal").toFile();
+
+        TaskList session = new TaskList();
+        Storage storage = new Storage(session, file.getAbsolutePath());
+        try {
+            storage.load();
+        } catch (IOException e) {
+            // first run
+        }
+        session.add("todo", "a");
+        assertTrue(Files.size(journal.toPath()) > 0);
+        storage.save();
+        assertEquals(0, Files.size(journal.toPath()));
+
+        TaskList recovered = loadFrom(file);
+        assertEquals(1, recovered.getTasks().size());
+    }
+
+    @Test
+    void recordsAlreadyInSnapshotAreSkipped() throws IOException {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        Files.writeString(file.toPath(), String.join(System.lineSeparator(),
+                "J | 2",
+                "T | 0 | a",
+                "T | 0 | b") + System.lineSeparator());
+        Files.writeString(tempDir.resolve("IDKName.txt.journal"), String.join(System.lineSeparator(),
+                "1 | A | T | 0 | a",
+                "2 | A | T | 0 | b",
+                "3 | M | 0",
+                "4 | A | T | 0 | torn") + System.lineSeparator() + "5 | A | T");
+
+        TaskList recovered = loadFrom(file);
+        assertEquals(3, recovered.getTasks().size());
+        assertTrue(recovered.get(0).isDone());
+        assertEquals("torn", recovered.get(2).getDescription());
+    }
+
+    @Test
+    void bulkCommandsAreOneRecordEach() throws IOException {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+
+        TaskList session = loadFrom(file);
+        for (int i = 1; i <= 30; i++) {
+            session.add("todo", "t" + i);
+        }
+        session.markDoneOrUndone(true, "1-10,25");
+        session.delete("3,7,9-20");
+        session.delete("done");
+
+        java.util.List<String> records = Files.readAllLines(tempDir.resolve("IDKName.txt.journal"));
+        assertEquals(33, records.size());
+        assertEquals("31 | M | 0-9,24", records.get(30));
+        assertEquals("32 | R | 2,6,8-19", records.get(31));
+        assertEquals("33 | R | 0-5,10", records.get(32));
+
+        TaskList recovered = loadFrom(file);
+        assertEquals(java.util.List.of("t21", "t22", "t23", "t24", "t26", "t27", "t28", "t29", "t30"),
+                recovered.getTasks().stream().map(t -> t.getDescription()).toList());
+    }
+
+    @Test
+    void pipelineIsJournaledTogetherAndAtomicFailureChangesNothing() throws IOException {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        Path journal = tempDir.resolve("IDKName.txt.journal");
+
+        TaskList session = loadFrom(file);
+        Command command = new Command("test", session);
+        String response = command.getResponse("todo a; todo \"b;c\"; mark 2; delete 1");
+        assertTrue(response.contains("Now you have 2 tasks"));
+        assertTrue(response.contains("removed this task"));
+        assertEquals(4, Files.readAllLines(journal).size());
+
+        response = command.getResponse("atomic todo d; mark 9");
+        assertTrue(response.startsWith("Nothing was changed: command 2 of 2 failed."));
+        assertEquals(1, session.size());
+        assertEquals(4, Files.readAllLines(journal).size());
+
+        command.getResponse("atomic todo d; mark 2");
+        assertEquals(6, Files.readAllLines(journal).size());
+
+        TaskList recovered = loadFrom(file);
+        assertEquals(java.util.List.of("b;c", "d"),
+                recovered.getTasks().stream().map(t -> t.getDescription()).toList());
+        assertTrue(recovered.get(0).isDone());
+        assertTrue(recovered.get(1).isDone());
+    }
+}
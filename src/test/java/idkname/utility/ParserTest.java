@@ -2,6 +2,7 @@ package idkname.utility;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -11,6 +12,8 @@ import java.time.LocalDateTime;
 
 import org.junit.jupiter.api.Test;
 
+import idkname.task.Task;
+
 class ParserTest {
 
     // ordinaryParse
@@ -108,6 +111,95 @@ class ParserTest {
         assertNull(Parser.eventParse("  "));
     }
 
+    // deadlineTaskParse / eventTaskParse
+
+    @Test
+    void deadlineTaskParseBuildsTask() {
+        Task t = Parser.deadlineTaskParse("  finish report   /   2025-01-02  ");
+        assertEquals("finish report", t.getDescription());
+        assertEquals(LocalDate.of(2025, 1, 2), t.getDueDate());
+    }
+
+    @Test
+    void eventTaskParseBuildsTask() {
+        Task t = Parser.eventTaskParse("meeting / 2025-10-01T10:00 / 2025-10-01T11:00:30");
+        assertEquals("meeting", t.getDescription());
+        assertEquals(LocalDateTime.of(2025, 10, 1, 10, 0), t.getTimePeriod()[0]);
+        assertEquals(LocalDateTime.of(2025, 10, 1, 11, 0, 30), t.getTimePeriod()[1]);
+    }
+
+    @Test
+    void taskParseWrongShapeThrows() {
+        assertThrows(java.time.DateTimeException.class, () -> Parser.deadlineTaskParse("finish report"));
+        assertThrows(java.time.DateTimeException.class, () -> Parser.deadlineTaskParse(" / 2025-01-02"));
+        assertThrows(java.time.DateTimeException.class, () -> Parser.deadlineTaskParse("report / 2025-02-30"));
+        assertThrows(java.time.DateTimeException.class, () -> Parser.eventTaskParse("meeting / 2025-10-01T10:00"));
+        assertThrows(java.time.DateTimeException.class,
+                () -> Parser.eventTaskParse("meeting / 2025-13-01T10:00 / 2025-10-01T11:00"));
+    }
+
+    // result API
+
+    @Test
+    void dateResultsUseFixedWidthFastPathAndFallBack() {
+        assertEquals(LocalDate.of(2024, 2, 29), Parser.localDateResult(" 2024-02-29 ").value());
+        assertEquals(LocalDate.of(-5, 1, 2), Parser.localDateResult("-0005-01-02").value());
+        assertEquals(LocalDateTime.of(2025, 10, 1, 9, 5, 7, 500_000_000),
+                Parser.localDateTimeResult("2025-10-01T09:05:07.5").value());
+        assertEquals(LocalDateTime.of(2025, 10, 1, 9, 5),
+                Parser.localDateTimeResult("x 2025-10-01T09:05 y", 1, 18).value());
+    }
+
+    @Test
+    void invalidDatesReportErrorCodes() {
+        assertEquals(ParseError.INVALID_DATE, Parser.localDateResult("2023-02-29").error());
+        assertEquals(ParseError.INVALID_DATE, Parser.localDateResult("tomorrow").error());
+        assertEquals(ParseError.INVALID_DATE, Parser.localDateResult("").error());
+        assertEquals(ParseError.INVALID_DATE_TIME, Parser.localDateTimeResult("2025-10-01T24:00").error());
+        assertEquals(ParseError.INVALID_DATE_TIME, Parser.localDateTimeResult("2025-10-01").error());
+        assertFalse(Parser.localDateTimeResult("2025-10-01T10:00:00.").isOk());
+    }
+
+    @Test
+    void taskResultsReportErrorCodes() {
+        assertEquals(ParseError.MISSING_SEPARATOR, Parser.deadlineResult("finish report").error());
+        assertEquals(ParseError.MISSING_DESCRIPTION, Parser.deadlineResult(" / 2025-01-02").error());
+        assertEquals(ParseError.INVALID_DATE, Parser.deadlineResult("report / 2025-02-30").error());
+        assertEquals(ParseError.MISSING_SEPARATOR, Parser.eventResult("meeting / 2025-10-01T10:00").error());
+        assertEquals(ParseError.INVALID_DATE_TIME,
+                Parser.eventResult("meeting / 2025-10-01T10:00 / 2025-10-01T25:00").error());
+        assertEquals(ParseError.REVERSED_PERIOD, Parser.periodResult("2025-10-02T09:00/2025-10-01T09:00").error());
+        assertEquals(ParseError.REVERSED_PERIOD,
+                Parser.eventResult("meeting / 2025-10-01T11:00 / 2025-10-01T10:00").error());
+        assertEquals("instant", Parser.eventResult("instant / 2025-10-01T10:00 / 2025-10-01T10:00").value()
+                .getDescription());
+        assertEquals("meeting", Parser.eventResult("meeting / 2025-10-01T10:00 / 2025-10-01T11:00").value()
+                .getDescription());
+    }
+
+    @Test
+    void naturalLanguageDatesAreCachedPerPhraseAndDay() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        assertEquals(tomorrow, Parser.deadlineResult("pay rent / Tomorrow").value().getDueDate());
+        long misses = NaturalDates.misses();
+        assertEquals(tomorrow, Parser.dateResult("  tomorrow ").value());
+        assertEquals(tomorrow.atTime(17, 0), Parser.dateTimeResult("tomorrow 5pm").value());
+        assertEquals(tomorrow.atTime(17, 0), Parser.dateTimeResult("TOMORROW   5PM").value());
+        assertEquals(misses + 1, NaturalDates.misses());
+        assertEquals(tomorrow.atStartOfDay(), Parser.dateTimeResult("tomorrow").value());
+        assertEquals(ParseError.INVALID_DATE, Parser.dateResult("2025-02-30").error());
+    }
+
+    @Test
+    void naturalDatesReadPhrasesAgainstTheGivenDay() {
+        LocalDate day = LocalDate.of(2030, 6, 1);
+        assertEquals(LocalDate.of(2030, 6, 2), NaturalDates.parse("tomorrow", day).orElseThrow().toLocalDate());
+        long misses = NaturalDates.misses();
+        NaturalDates.parse("tomorrow unless it snows", day);
+        NaturalDates.parse("tomorrow unless it snows", day);
+        assertEquals(misses + 1, NaturalDates.misses());
+    }
+
     // localDate/localDateTime parse
 
     @Test
@@ -120,4 +212,59 @@ class ParserTest {
         assertEquals(LocalDateTime.of(2030, 1, 2, 3, 4),
                 Parser.localDateTimeParse(" 2030-01-02T03:04 "));
     }
+
+    @Test
+    void localDateTimeAcceptsLowercaseSeparator() {
+        assertEquals(LocalDateTime.of(2025, 10, 1, 10, 0), Parser.localDateTimeParse("2025-10-01t10:00"));
+        assertEquals(LocalDateTime.of(2025, 10, 1, 10, 0, 30), Parser.localDateTimeParse("2025-10-01t10:00:30"));
+        byte[] bytes = "2025-10-01t10:00".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        assertEquals(LocalDateTime.of(2025, 10, 1, 10, 0),
+                IsoDates.parseDateTime(java.nio.ByteBuffer.wrap(bytes), 0, bytes.length));
+    }
+
+    // taskNumbersParse
+
+    @Test
+    void taskNumbersParseListsAndRanges() {
+        assertArrayEquals(new int[] {4}, Parser.taskNumbersParse(" 5 ", 10));
+        assertArrayEquals(new int[] {2, 6, 8, 9}, Parser.taskNumbersParse("3, 7,9 - 10,9", 10));
+        assertArrayEquals(new int[] {0, 1, 2}, Parser.taskNumbersParse("1-3", 3));
+        assertArrayEquals(new int[] {1, 2, 3, 7, 8}, Parser.taskNumbersParse("8-9,2,3-4,2,", 10));
+    }
+
+    @Test
+    void taskNumbersParseInvalidThrows() {
+        assertThrows(NumberFormatException.class, () -> Parser.taskNumbersParse("5-3", 10));
+        assertThrows(NumberFormatException.class, () -> Parser.taskNumbersParse("-3", 10));
+        assertThrows(NumberFormatException.class, () -> Parser.taskNumbersParse("1,,2", 10));
+        assertThrows(NumberFormatException.class, () -> Parser.taskNumbersParse("0-2", 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> Parser.taskNumbersParse("9-11", 10));
+    }
+
+    // pipelineResult
+
+    @Test
+    void pipelineResultSplitsOnUnquotedSemicolons() {
+        assertEquals(java.util.List.of("todo a", "todo b;c", "todo d;e", "mark 3"),
+                Parser.pipelineResult("todo a; todo \"b;c\" ;; todo d\\;e;mark 3; ").value());
+        assertEquals(java.util.List.of("todo say \"hi\""), Parser.pipelineResult("todo say \\\"hi\\\"").value());
+        assertEquals(ParseError.UNTERMINATED_QUOTE, Parser.pipelineResult("todo \"a; list").error());
+    }
+
+    // periodParse
+
+    @Test
+    void periodParseValid() {
+        LocalDateTime[] p = Parser.periodParse(" 2025-10-01T09:00 / 2025-10-01T17:30:00 ");
+        assertEquals(LocalDateTime.of(2025, 10, 1, 9, 0), p[0]);
+        assertEquals(LocalDateTime.of(2025, 10, 1, 17, 30), p[1]);
+    }
+
+    @Test
+    void periodParseInvalidThrows() {
+        assertThrows(java.time.DateTimeException.class, () -> Parser.periodParse("2025-10-01T09:00"));
+        assertThrows(java.time.DateTimeException.class, () -> Parser.periodParse("2025-10-01T09:00/2025-10-02"));
+        assertThrows(java.time.DateTimeException.class,
+                () -> Parser.periodParse("2025-10-02T09:00/2025-10-01T09:00"));
+    }
 }
@@ -1,8 +1,12 @@
 package idkname.utility;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.time.LocalDate;
@@ -71,4 +75,296 @@ class StorageTest {
         assertEquals("T", loaded.getTasks().get(0).getTaskType());
         assertEquals("D", loaded.getTasks().get(1).getTaskType());
     }
+
+    @Test
+    void mappedLoadMatchesScannerLoad() throws IOException {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        String content = String.join("\r\n",
+                "J | 7",
+                "T | 1 | buy milk",
+                "X | ??? | nonsense",
+                "  D | 0 |  submit report  | 2025-12-12 ",
+                "D | 0 | bad date | 2025-02-30",
+                "E | 1 | meeting | 2025-10-01T10:00 | 2025-10-01T11:00:30",
+                "E | 0 | precise | 2025-10-01T10:00:00.5 | 2025-10-01T11:00",
+                "E | 0 | meeting | 2025-10-01T10:00",
+                "",
+                "T | 0 | cafe | extra");
+        java.nio.file.Files.writeString(file.toPath(), content);
+
+        TaskList scanned = new TaskList();
+        new Storage(scanned, file.getAbsolutePath()).load();
+        TaskList mapped = new TaskList();
+        LoadStats stats = new Storage(mapped, new MappedBackend(file.getAbsolutePath(), false)).load();
+
+        assertEquals(5, mapped.getTasks().size());
+        assertEquals(5, stats.getTaskCount());
+        assertEquals(scanned.getTasks().size(), mapped.getTasks().size());
+        for (int i = 0; i < scanned.getTasks().size(); i++) {
+            assertEquals(scanned.get(i), mapped.get(i), "Task mismatch at index " + i);
+        }
+    }
+
+    @Test
+    void binaryRoundTripPreservesTasksAcrossBlocks() throws IOException {
+        TaskList original = new TaskList();
+        for (int i = 0; i < BinarySnapshot.BLOCK_SIZE + 10; i++) {
+            Task t = switch (i % 3) {
+            case 0 -> new Todo("todo " + i);
+            case 1 -> new Deadline("deadline " + i, LocalDate.of(2025, 1, 1).plusDays(i));
+            default -> new Event("event \u00e9 " + i,
+                    LocalDateTime.of(2025, 10, 1, 10, 0, 0, 500_000_000),
+                    LocalDateTime.of(2025, 10, 1, 11, 0).plusMinutes(i));
+            };
+            if (i % 7 == 0) {
+                t.markDone(true);
+            }
+            original.add(t);
+        }
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        new Storage(original, new BinaryBackend(file.getAbsolutePath())).save();
+        assertTrue(BinarySnapshot.isBinary(file.toPath()));
+
+        TaskList loaded = new TaskList();
+        new Storage(loaded, file.getAbsolutePath()).load();
+
+        assertEquals(original.getTasks().size(), loaded.getTasks().size());
+        for (int i = 0; i < original.getTasks().size(); i++) {
+            assertEquals(original.get(i), loaded.get(i), "Task mismatch at index " + i);
+            assertEquals(original.get(i).getTaskType(), loaded.get(i).getTaskType());
+        }
+    }
+
+    @Test
+    void binaryStorageMigratesTextSnapshotAndKeepsBackup() throws IOException {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        String content = String.join(System.lineSeparator(),
+                "T | 1 | buy milk",
+                "D | 0 | submit report | 2025-12-12",
+                "E | 0 | meeting | 2025-10-01T10:00:00.25 | 2025-10-01T11:00") + System.lineSeparator();
+        java.nio.file.Files.writeString(file.toPath(), content);
+
+        TaskList migrated = new TaskList();
+        new Storage(migrated, new BinaryBackend(file.getAbsolutePath())).load();
+
+        assertTrue(BinarySnapshot.isBinary(file.toPath()));
+        assertEquals(content, java.nio.file.Files.readString(tempDir.resolve("IDKName.txt.bak")));
+        TaskList reloaded = new TaskList();
+        new Storage(reloaded, file.getAbsolutePath()).load();
+        assertEquals(3, reloaded.getTasks().size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(migrated.get(i), reloaded.get(i));
+        }
+        assertEquals(LocalDateTime.of(2025, 10, 1, 10, 0, 0, 250_000_000), reloaded.get(2).getTimePeriod()[0]);
+    }
+
+    @Test
+    void concurrentSavesAreGroupCommittedAndReplaceAtomically() throws Exception {
+        TaskList list = new TaskList();
+        list.add(new Todo("a"));
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        Storage storage = new Storage(list, new TextBackend(file.getAbsolutePath()), Durability.PER_BATCH);
+
+        Thread[] savers = new Thread[4];
+        for (int i = 0; i < savers.length; i++) {
+            savers[i] = new Thread(() -> {
+                for (int j = 0; j < 10; j++) {
+                    try {
+                        storage.save();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            savers[i].start();
+        }
+        for (Thread saver : savers) {
+            saver.join();
+        }
+
+        assertEquals(40, storage.getMetrics().getRequests());
+        assertTrue(storage.getMetrics().getCommits() <= 40);
+        assertTrue(!tempDir.resolve("IDKName.txt.tmp").toFile().exists());
+        TaskList loaded = new TaskList();
+        new Storage(loaded, file.getAbsolutePath()).load();
+        assertEquals(1, loaded.getTasks().size());
+    }
+
+    @Test
+    void parallelLoadMatchesSequentialLoadOnLargeFile() throws IOException {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        StringBuilder content = new StringBuilder("J | 3\n");
+        for (int i = 0; content.length() < 2 * ParallelTaskLoader.PARALLEL_THRESHOLD; i++) {
+            content.append(switch (i % 4) {
+            case 0 -> "T | 1 | todo " + i;
+            case 1 -> "D | 0 | deadline " + i + " | 2025-12-12";
+            case 2 -> "E | 0 | event " + i + " | 2025-10-01T10:00 | 2025-10-01T11:00";
+            default -> "X | broken " + i;
+            }).append('\n');
+        }
+        java.nio.file.Files.writeString(file.toPath(), content);
+
+        TaskList sequential = new TaskList();
+        new Storage(sequential, new MappedBackend(file.getAbsolutePath(), false)).load();
+        TaskList parallel = new TaskList();
+        LoadStats stats = new Storage(parallel, new MappedBackend(file.getAbsolutePath())).load();
+
+        assertEquals(sequential.getTasks().size(), stats.getTaskCount());
+        assertEquals(sequential.getTasks().size(), parallel.getTasks().size());
+        for (int i = 0; i < sequential.getTasks().size(); i++) {
+            assertEquals(sequential.get(i), parallel.get(i), "Task mismatch at index " + i);
+        }
+    }
+
+    @Test
+    void inMemoryBackendReplaysJournalWithoutTouchingDisk() throws IOException {
+        StorageBackend backend = StorageBackend.of("memory", tempDir.resolve("IDKName.txt").toString());
+        TaskList session = new TaskList();
+        Storage storage = new Storage(session, backend);
+        assertThrows(FileNotFoundException.class, storage::load);
+        session.add(new Todo("saved"));
+        storage.save();
+        session.add(new Deadline("journaled", LocalDate.of(2025, 12, 12)));
+        session.markDoneOrUndone(true, "1");
+
+        TaskList loaded = new TaskList();
+        new Storage(loaded, backend).load();
+
+        assertEquals(2, loaded.getTasks().size());
+        assertEquals(session.get(1), loaded.get(1));
+        assertTrue(loaded.get(0).isDone());
+        assertEquals(0, tempDir.toFile().list().length);
+    }
+
+    @Test
+    void compressedSnapshotsAreDetectedByAnyFileBackend() throws IOException {
+        TaskList original = new TaskList();
+        original.add(new Todo("buy milk"));
+        original.add(new Deadline("submit report", LocalDate.of(2025, 12, 12)));
+        original.add(new Event("townhall", LocalDateTime.of(2025, 10, 1, 10, 0), LocalDateTime.of(2025, 10, 1, 11, 0)));
+        original.mark(1, true);
+
+        for (boolean isBinary : new boolean[] {false, true}) {
+            File file = tempDir.resolve("IDKName-" + isBinary + ".txt").toFile();
+            StorageBackend backend = new CompressedBackend(file.getAbsolutePath(), isBinary);
+            new Storage(original, backend).save();
+            byte[] bytes = java.nio.file.Files.readAllBytes(file.toPath());
+            assertEquals((byte) 0x1f, bytes[0]);
+            assertEquals((byte) 0x8b, bytes[1]);
+            if (isBinary) {
+                assertEquals(3, backend.estimateTaskCount()); // read from the header inside the stream
+            }
+
+            TaskList loaded = new TaskList();
+            new Storage(loaded, new TextBackend(file.getAbsolutePath())).load();
+            assertEquals(3, loaded.getTasks().size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(original.get(i), loaded.get(i));
+                assertEquals(original.get(i).isDone(), loaded.get(i).isDone());
+            }
+        }
+    }
+
+    @Test
+    void cleanSessionSkipsSave() throws IOException {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        TaskList original = new TaskList();
+        original.add(new Todo("buy milk"));
+        new Storage(original, file.getAbsolutePath()).save();
+
+        TaskList session = new TaskList();
+        Storage storage = new Storage(session, file.getAbsolutePath());
+        storage.load();
+        session.find("milk");
+        session.mark(0, false); // already not done: no change
+        storage.save(true);
+
+        assertEquals(1, storage.getMetrics().getRequests());
+        assertEquals(0, storage.getMetrics().getCommits());
+    }
+
+    @Test
+    void binarySnapshotSavesSmallChangesInPlace() throws IOException {
+        File file = tempDir.resolve("IDKName.bin").toFile();
+        TaskList original = new TaskList();
+        for (int i = 0; i < 3000; i++) {
+            original.add(new Todo("todo " + i));
+        }
+        new Storage(original, new BinaryBackend(file.getAbsolutePath())).save();
+
+        TaskList session = new TaskList();
+        Storage storage = new Storage(session, new BinaryBackend(file.getAbsolutePath()));
+        storage.load();
+        session.mark(5, true);
+        session.mark(2500, true);
+        session.add(new Deadline("new", LocalDate.of(2025, 12, 12)));
+        storage.save();
+        session.mark(3000, true);
+        session.add(new Todo("newer"));
+        storage.save();
+
+        BinarySnapshot.Layout layout = new BinarySnapshot.Layout();
+        TaskList loaded = new TaskList();
+        BinarySnapshot.read(file.toPath(), loaded::add, layout);
+        assertEquals(5, layout.getBlockCount(), "three full blocks plus two appended ones");
+        assertEquals(session.getTasks().size(), loaded.getTasks().size());
+        for (int i = 0; i < session.getTasks().size(); i++) {
+            assertEquals(session.get(i), loaded.get(i), "Task mismatch at index " + i);
+        }
+
+        session.remove(0); // shifts every saved task, so the next save is a full one
+        storage.save();
+        layout = new BinarySnapshot.Layout();
+        BinarySnapshot.read(file.toPath(), t -> { }, layout);
+        assertEquals(3, layout.getBlockCount());
+    }
+
+    @Test
+    void unreadableSnapshotIsSetAsideBeforeSaving() throws IOException {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        TaskList original = new TaskList();
+        for (int i = 0; i < 3000; i++) {
+            original.add(new Todo("todo " + i));
+        }
+        Storage storage = new Storage(original, new BinaryBackend(file.getAbsolutePath()));
+        storage.save();
+        storage.load(); // attaches the journal
+        original.add(new Todo("journaled"));
+        byte[] journal = java.nio.file.Files.readAllBytes(tempDir.resolve("IDKName.txt.journal"));
+        byte[] truncated = java.util.Arrays.copyOf(java.nio.file.Files.readAllBytes(file.toPath()),
+                (int) file.length() / 2);
+        java.nio.file.Files.write(file.toPath(), truncated);
+
+        TaskList session = new TaskList();
+        Storage broken = new Storage(session, new BinaryBackend(file.getAbsolutePath()));
+        assertThrows(IOException.class, broken::load);
+        String aside = broken.setAside();
+        session.add(new Todo("hello"));
+        broken.save();
+
+        assertArrayEquals(truncated, java.nio.file.Files.readAllBytes(Path.of(aside)));
+        assertArrayEquals(journal, java.nio.file.Files.readAllBytes(Path.of(aside + ".journal")));
+        TaskList reloaded = new TaskList();
+        new Storage(reloaded, new BinaryBackend(file.getAbsolutePath())).load();
+        assertEquals(session.getTasks().size(), reloaded.getTasks().size());
+    }
+
+    @Test
+    void textSnapshotAndJournalAreUtf8() throws IOException {
+        File file = tempDir.resolve("IDKName.txt").toFile();
+        TaskList original = new TaskList();
+        original.add(new Todo("caf\u00e9 \u2615"));
+        Storage storage = new Storage(original, new TextBackend(file.getAbsolutePath()));
+        storage.save();
+        storage.load();
+        original.add(new Todo("na\u00efve \u65e5\u672c"));
+
+        assertTrue(java.nio.file.Files.readString(file.toPath(), java.nio.charset.StandardCharsets.UTF_8)
+                .contains("caf\u00e9 \u2615"));
+        TaskList loaded = new TaskList();
+        new Storage(loaded, new MappedBackend(file.getAbsolutePath())).load();
+        assertEquals(2, loaded.getTasks().size());
+        assertEquals("caf\u00e9 \u2615", loaded.get(0).getDescription());
+        assertEquals("na\u00efve \u65e5\u672c", loaded.get(1).getDescription());
+    }
 }
@@ -1,6 +1,7 @@
 package idkname.utility;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -121,4 +122,336 @@ class TaskListTest {
         }
         assertEquals(list.getTasks().size(), count);
     }
+
+    @Test
+    void snapshotIsUnaffectedByLaterMutations() {
+        TaskList copy = list.snapshot();
+        list.markDoneOrUndone(true, "1");
+        list.delete("2");
+
+        assertEquals(3, copy.getTasks().size());
+        assertFalse(copy.get(0).isDone());
+        assertEquals("beta", copy.get(1).getDescription());
+    }
+
+    @Test
+    void indexedFindMatchesCaseInsensitiveContains() {
+        String[] words = {"Read", "book", "CS2103", "read-me", "bookkeeping", "e-mail", "to do", "", "  ", "Hello"};
+        String[] queries = {"book", "BOOK", "ook", "read b", "ad-m", "k r", "2103", "-", " ", "", "o d", "xyz",
+            "book bookk", "e-mail", "ello", "ee", "   ", "kk"};
+        TaskList tasks = new TaskList();
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < 400; i++) {
+            tasks.add(new Todo(words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]));
+            if (i == 100) {
+                tasks.find("warm"); // build the index, then keep adding and deleting
+            }
+            if (i % 7 == 0) {
+                tasks.remove(random.nextInt(tasks.getTasks().size()));
+            }
+        }
+        for (String query : queries) {
+            java.util.List<Task> expected = tasks.getTasks().stream()
+                    .filter(t -> t.getDescription().toLowerCase().contains(query.toLowerCase()))
+                    .toList();
+            assertEquals(expected, tasks.find(query).getTasks(), "query '" + query + "'");
+        }
+    }
+
+    @Test
+    void sortedViewsMatchStableSortAfterAddsAndDeletes() {
+        TaskList tasks = new TaskList();
+        java.util.Random random = new java.util.Random(7);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < 600; i++) {
+            LocalDateTime when = base.plusHours(random.nextInt(48)); // plenty of equal dates
+            switch (random.nextInt(3)) {
+            case 0 -> tasks.add(new Todo("t" + i));
+            case 1 -> tasks.add(new Deadline("d" + i, when.toLocalDate()));
+            default -> tasks.add(new Event("e" + i, when, when.plusHours(1)));
+            }
+            if (i == 150) {
+                tasks.sortTasks(); // build the views, then keep adding and deleting
+            }
+            if (i % 5 == 0) {
+                tasks.remove(random.nextInt(tasks.getTasks().size()));
+            }
+        }
+        assertEquals(tasks.getTasks().stream().sorted().toList(), tasks.sortTasks().getTasks());
+        assertEquals(tasks.getTasks().stream().filter(t -> t.getTaskType().equals("E")).sorted().toList(),
+                tasks.sortTasks("event").getTasks());
+    }
+
+    @Test
+    void calendarQueriesMatchScanAfterAddsAndDeletes() {
+        TaskList tasks = new TaskList();
+        java.util.Random random = new java.util.Random(11);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime start = base.plusHours(random.nextInt(200));
+            tasks.add(new Event("e" + i, start, start.plusHours(random.nextInt(12))));
+            if (i % 3 == 0) {
+                tasks.add(new Todo("t" + i));
+            }
+            if (i == 120) {
+                tasks.eventsOn(base); // build the tree, then keep adding and deleting
+            }
+            if (i % 4 == 0) {
+                tasks.remove(random.nextInt(tasks.getTasks().size()));
+            }
+        }
+        for (int q = 0; q < 50; q++) {
+            LocalDateTime from = base.plusHours(random.nextInt(220));
+            LocalDateTime to = from.plusHours(random.nextInt(10));
+            java.util.Set<Task> expected = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+            tasks.getTasks().stream()
+                    .filter(t -> t.getTaskType().equals("E"))
+                    .filter(t -> !t.getTimePeriod()[1].isBefore(from) && !t.getTimePeriod()[0].isAfter(to))
+                    .forEach(expected::add);
+            java.util.List<Task> actual = tasks.eventsBetween(from, to).getTasks();
+            assertEquals(expected.size(), actual.size());
+            assertTrue(expected.containsAll(actual));
+        }
+    }
+
+    @Test
+    void freeSlotsAreTheGapsBetweenEvents() {
+        TaskList tasks = new TaskList();
+        LocalDateTime nine = LocalDateTime.of(2025, 10, 1, 9, 0);
+        tasks.add(new Event("standup", nine, nine.plusHours(1)));
+        tasks.add(new Event("lecture", nine.plusMinutes(30), nine.plusHours(2)));
+        tasks.add(new Event("lunch", nine.plusHours(3), nine.plusHours(4)));
+
+        java.util.List<LocalDateTime[]> free = tasks.freeSlots(nine.minusHours(1), nine.plusHours(5));
+
+        assertEquals(3, free.size());
+        assertEquals(nine.minusHours(1), free.get(0)[0]);
+        assertEquals(nine, free.get(0)[1]);
+        assertEquals(nine.plusHours(2), free.get(1)[0]);
+        assertEquals(nine.plusHours(3), free.get(1)[1]);
+        assertEquals(nine.plusHours(4), free.get(2)[0]);
+        assertEquals(2, tasks.eventsOn(nine.plusMinutes(45)).getTasks().size());
+        assertTrue(tasks.freeSlots(nine, nine.plusHours(2)).isEmpty());
+    }
+
+    @Test
+    void dueQueriesOnlyReturnUndoneDeadlines() {
+        TaskList tasks = new TaskList();
+        LocalDate day = LocalDate.of(2025, 10, 1);
+        tasks.add(new Deadline("early", day.minusDays(2)));
+        tasks.add(new Deadline("done", day.minusDays(1)));
+        tasks.add(new Todo("todo"));
+        tasks.add(new Deadline("today", day));
+        tasks.add(new Deadline("later", day.plusDays(3)));
+        tasks.markDoneOrUndone(true, "2");
+
+        assertEquals(java.util.List.of("early"), descriptions(tasks.dueBefore(day)));
+        tasks.markDoneOrUndone(false, "2");
+        tasks.markDoneOrUndone(true, "1");
+        assertEquals(java.util.List.of("done"), descriptions(tasks.dueBefore(day)));
+        tasks.add(new Deadline("also today", day));
+        assertEquals(java.util.List.of("today", "also today"), descriptions(tasks.dueOn(day)));
+        tasks.delete("4");
+        assertEquals(java.util.List.of("also today"), descriptions(tasks.dueOn(day)));
+        assertEquals(java.util.List.of("done", "also today", "later"), descriptions(tasks.dueBefore(day.plusDays(9))));
+    }
+
+    @Test
+    void nextReturnsSoonestUndoneTasksWithOrWithoutSortedViews() {
+        LocalDateTime now = LocalDateTime.of(2025, 10, 1, 12, 0);
+        TaskList tasks = new TaskList();
+        tasks.add(new Deadline("yesterday", now.toLocalDate().minusDays(1)));
+        tasks.add(new Event("started", now.minusHours(1), now.plusHours(1)));
+        tasks.add(new Deadline("in a week", now.toLocalDate().plusDays(7)));
+        tasks.add(new Todo("todo"));
+        tasks.add(new Event("tonight", now.plusHours(8), now.plusHours(9)));
+        tasks.add(new Deadline("today", now.toLocalDate()));
+        tasks.add(new Event("next week", now.plusDays(7).toLocalDate().atStartOfDay(), now.plusDays(8)));
+        tasks.add(new Deadline("done", now.toLocalDate().plusDays(1)));
+        tasks.add(new Deadline("also in a week", now.toLocalDate().plusDays(7)));
+        tasks.markDoneOrUndone(true, "8");
+
+        for (int pass = 0; pass < 2; pass++) {
+            assertEquals(java.util.List.of("today", "tonight", "in a week", "also in a week"),
+                    descriptions(tasks.next(4, null, now)));
+            assertEquals(java.util.List.of("today", "tonight", "in a week", "also in a week", "next week"),
+                    descriptions(tasks.next(10, null, now)));
+            assertEquals(java.util.List.of("today", "in a week"), descriptions(tasks.next(2, "deadline", now)));
+            assertEquals(java.util.List.of("tonight"), descriptions(tasks.next(1, " Event ", now)));
+            assertEquals(0, tasks.next(3, "todo", now).size());
+            assertEquals(0, tasks.next(0, null, now).size());
+            tasks.sortTasks(); // later passes read the sorted views
+        }
+    }
+
+    @Test
+    void nextCommandRejectsUnknownTaskTypes() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Deadline("report", LocalDate.now().plusDays(1)));
+        Command command = new Command("test", tasks);
+
+        assertTrue(command.getResponse("next 3 Deadline").contains("report"));
+        assertEquals(String.format("%s%n", ParseError.UNKNOWN_TASK_TYPE.describe("deadlnie")),
+                command.getResponse("next 3 deadlnie"));
+        assertEquals(String.format("%s%n", ParseError.UNKNOWN_TASK_TYPE.describe("todo")),
+                command.getResponse("next 3 todo"));
+    }
+
+    @Test
+    void statsFollowAddsMarksAndDeletes() {
+        LocalDate today = LocalDate.of(2025, 10, 1);
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("todo"));
+        tasks.add(new Deadline("late", today.minusDays(3)));
+        tasks.add(new Deadline("tomorrow", today.plusDays(1)));
+        tasks.add(new Event("event", today.atStartOfDay(), today.atStartOfDay().plusHours(1)));
+        tasks.add(new Deadline("in a week", today.plusDays(7)));
+        tasks.markDoneOrUndone(true, "1,4");
+
+        assertEquals(String.format("Here is a summary of your tasks:%n todo: 1 (1 done)%n"
+                + " deadline: 3 (0 done, 1 overdue)%n event: 1 (1 done)%n total: 5 (2 done)%n"), tasks.stats(today));
+        assertTrue(tasks.stats(today.plusDays(2)).contains("deadline: 3 (0 done, 2 overdue)"));
+        tasks.markDoneOrUndone(true, "2");
+        assertTrue(tasks.stats(today.plusDays(2)).contains("deadline: 3 (1 done, 1 overdue)"));
+        tasks.delete("3");
+        tasks.add(new Deadline("last week", today.minusDays(7)));
+        assertTrue(tasks.stats(today.plusDays(8)).contains("deadline: 3 (1 done, 2 overdue)"));
+        assertTrue(tasks.stats(today).contains("deadline: 3 (1 done, 1 overdue)"));
+        assertTrue(tasks.stats(today).contains("total: 5 (3 done)"));
+    }
+
+    @Test
+    void failedAtomicBatchIsUndoneWhole() {
+        LocalDate today = LocalDate.of(2025, 10, 1);
+        TaskList tasks = new TaskList();
+        for (int i = 1; i <= 12; i++) {
+            tasks.add(i % 3 == 0 ? new Deadline("d" + i, today.plusDays(i - 6)) : new Todo("t" + i));
+        }
+        tasks.markDoneOrUndone(true, "2");
+        tasks.sortTasks(); // build every index, so the batch has to undo them too
+        tasks.delete("5");
+        int found = tasks.find("t").size();
+        int due = tasks.dueBefore(today.plusDays(4)).size();
+        String before = tasks.view().getTasks().toString();
+        String stats = tasks.stats(today);
+        int[] ids = java.util.stream.IntStream.range(0, tasks.size()).map(tasks::getId).toArray();
+
+        String result = tasks.batch(() -> {
+            tasks.add(new Todo("new"));
+            tasks.markDoneOrUndone(true, "1,3-4");
+            tasks.delete("4,6");
+            tasks.delete(String.valueOf(tasks.size()));
+            tasks.delete("done");
+            tasks.markDoneOrUndone(false, "1");
+            return "failed";
+        }, response -> true);
+
+        assertEquals("failed", result);
+        assertEquals(before, tasks.view().getTasks().toString());
+        assertEquals(stats, tasks.stats(today));
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], tasks.getId(i));
+        }
+        assertEquals(found, tasks.find("t").size());
+        assertEquals(4, tasks.sortTasks("deadline").size());
+        assertEquals(due, tasks.dueBefore(today.plusDays(4)).size());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> tasks.batch(() -> {
+            tasks.delete("1");
+            return tasks.delete("99");
+        }, response -> false));
+        assertEquals(before, tasks.view().getTasks().toString());
+
+        tasks.batch(() -> tasks.delete("1-6"), response -> false);
+        assertEquals(5, tasks.size());
+        tasks.add(new Todo("after"));
+        assertEquals(ids[ids.length - 1] + 1, tasks.getId(tasks.size() - 1));
+    }
+
+    @Test
+    void stableIdsSurviveDeletesAndCompaction() {
+        TaskList tasks = new TaskList();
+        java.util.List<Integer> expectedIds = new java.util.ArrayList<>();
+        java.util.List<Boolean> expectedDone = new java.util.ArrayList<>();
+        java.util.List<Integer> notified = new java.util.ArrayList<>();
+        tasks.addListener(new TaskListListener() {
+            @Override
+            public void onAdd(Task t) {
+            }
+
+            @Override
+            public void onDelete(int index) {
+                notified.add(index);
+            }
+
+            @Override
+            public void onMark(int index, boolean isDone) {
+                notified.add(index);
+            }
+        });
+        java.util.Random random = new java.util.Random(3);
+        for (int i = 0; i < 2000; i++) {
+            int op = random.nextInt(5);
+            int position = expectedIds.isEmpty() ? 0 : random.nextInt(expectedIds.size());
+            if (op < 2 || expectedIds.isEmpty()) {
+                tasks.add(new Todo("same")); // equal tasks must not be confused
+                expectedIds.add(tasks.getId(tasks.size() - 1));
+                expectedDone.add(false);
+            } else if (op == 2) {
+                Task removed = tasks.removeById(expectedIds.remove(position));
+                assertEquals(expectedDone.remove(position), removed.isDone());
+                assertEquals(position, (int) notified.get(notified.size() - 1));
+            } else if (op == 3) {
+                expectedIds.remove(position);
+                assertEquals(expectedDone.remove(position), tasks.remove(position).isDone());
+            } else {
+                boolean isDone = !expectedDone.get(position);
+                tasks.markById(expectedIds.get(position), isDone);
+                expectedDone.set(position, isDone);
+                assertEquals(position, (int) notified.get(notified.size() - 1));
+            }
+            assertEquals(expectedIds.size(), tasks.size());
+            if (!expectedIds.isEmpty()) {
+                int probe = random.nextInt(expectedIds.size());
+                assertEquals(expectedDone.get(probe), tasks.get(probe).isDone());
+                assertEquals((int) expectedIds.get(probe), tasks.getId(probe));
+            }
+        }
+        assertEquals(expectedDone, tasks.getTasks().stream().map(Task::isDone).toList());
+        assertThrows(IndexOutOfBoundsException.class, () -> tasks.removeById(-1));
+        int gone = expectedIds.get(0);
+        tasks.removeById(gone);
+        assertThrows(IndexOutOfBoundsException.class, () -> tasks.markById(gone, true));
+    }
+
+    @Test
+    void publishedViewsNeverChange() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 3000; i++) {
+            tasks.add(new Todo("t" + i));
+        }
+        TaskListView before = tasks.view();
+        tasks.markDoneOrUndone(true, "1-1500");
+        tasks.delete("2,1000-2100");
+        tasks.add(new Todo("late"));
+        TaskListView after = tasks.view();
+
+        assertEquals(3000, before.size());
+        assertEquals("t1999", before.get(1999).getDescription());
+        assertFalse(before.get(0).isDone());
+        assertEquals(3000, before.getTasks().stream().filter(t -> !t.isDone()).count());
+        assertEquals(3000 - 1102 + 1, after.size());
+        assertEquals("t2100", after.get(998).getDescription());
+        assertTrue(after.get(0).isDone());
+        assertEquals("late", after.get(after.size() - 1).getDescription());
+        int count = 0;
+        for (Task t : after) {
+            assertTrue(t == after.get(count++));
+        }
+        assertEquals(after.size(), count);
+    }
+
+    private static java.util.List<String> descriptions(TaskList tasks) {
+        return tasks.getTasks().stream().map(Task::getDescription).toList();
+    }
 }
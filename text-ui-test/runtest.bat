@@ -1,21 +1,21 @@
 @ECHO OFF
 
-REM create bin directory if it doesn't exist
-if not exist ..\bin mkdir ..\bin
-
-REM delete output from previous run
+REM delete output and saved tasks from previous run
 if exist ACTUAL.TXT del ACTUAL.TXT
+if exist data rmdir /s /q data
 
-REM compile the code into the bin folder
-javac  -cp ..\src\main\java -Xlint:none -d ..\bin ..\src\main\java\*.java
+REM build the application jar
+pushd ..
+call gradlew.bat -q shadowJar
+popd
 IF ERRORLEVEL 1 (
     echo ********** BUILD FAILURE **********
     exit /b 1
 )
 REM no error here, errorlevel == 0
 
-REM run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath ..\bin idkname.Main < input.txt > ACTUAL.TXT
+REM run the headless script mode on input.txt, saving to a fresh data file, and redirect the output to the ACTUAL.TXT
+java -classpath ..\build\libs\idkname.jar idkname.main.IdKName --script - --data data\IDKName.txt < input.txt > ACTUAL.TXT
 
 REM compare the output to the expected output
 FC ACTUAL.TXT EXPECTED.TXT